@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class BenchmarkData {
+    private static final long SEED = 20_231_024L;
+    private static final int GENRES = 6;
+    private static final int RATINGS = 5;
+
+    private final int users;
+    private final int films;
+    private final long[][] likes;
+    private final long[][] friends;
+    private final int[][] genres;
+    private final int[] ratings;
+
+    public BenchmarkData(int users, int films, int likesPerFilm, int friendsPerUser) {
+        Random random = new Random(SEED);
+        this.users = users;
+        this.films = films;
+        likes = new long[films][];
+        genres = new int[films][];
+        ratings = new int[films];
+        for (int i = 0; i < films; i++) {
+            likes[i] = distinctIds(random, Math.min(likesPerFilm, users), users, 0);
+            genres[i] = new int[] {1 + random.nextInt(GENRES / 2), 1 + GENRES / 2 + random.nextInt(GENRES / 2)};
+            ratings[i] = 1 + random.nextInt(RATINGS);
+        }
+        friends = new long[users][];
+        for (int i = 0; i < users; i++) {
+            friends[i] = distinctIds(random, Math.min(friendsPerUser, users - 1), users, i + 1);
+        }
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getFilms() {
+        return films;
+    }
+
+    public void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            userRows.add(new Object[] {"user" + i + "@example.com", "user" + i, Date.valueOf(birthday(i)),
+                    "User " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"USER\" (EMAIL, LOGIN, BIRTHDAY, NAME) VALUES (?, ?, ?, ?)",
+                userRows);
+
+        List<Object[]> filmRows = new ArrayList<>(films);
+        List<Object[]> genreRows = new ArrayList<>(films * 2);
+        List<Object[]> likeRows = new ArrayList<>();
+        for (int i = 0; i < films; i++) {
+            filmRows.add(new Object[] {"Film " + (i + 1), "Description " + (i + 1), Date.valueOf(releaseDate(i)),
+                    90 + i % 60, ratings[i], likes[i].length});
+            for (int genre : genres[i]) {
+                genreRows.add(new Object[] {i + 1, genre});
+            }
+            for (long userId : likes[i]) {
+                likeRows.add(new Object[] {i + 1, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO FILM (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID, "
+                + "LIKES_COUNT) VALUES (?, ?, ?, ?, ?, ?)", filmRows);
+        jdbcTemplate.batchUpdate("INSERT INTO FILM_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?)", genreRows);
+        jdbcTemplate.batchUpdate("INSERT INTO FILM_LIKE (FILM_ID, USER_ID) VALUES (?, ?)", likeRows);
+
+        List<Object[]> friendRows = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            for (long friendId : friends[i]) {
+                friendRows.add(new Object[] {i + 1, friendId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO FRIENDSHIP (USER_FIRST_ID, USER_SECOND_ID) VALUES (?, ?)",
+                friendRows);
+    }
+
+    public void seed(FilmStorage filmStorage, UserStorage userStorage) {
+        for (int i = 1; i <= users; i++) {
+            userStorage.create(user(i));
+        }
+        for (int i = 0; i < films; i++) {
+            Film film = filmStorage.create(film(i));
+            for (long userId : likes[i]) {
+                filmStorage.addLike(film.getId(), userId);
+            }
+        }
+        for (int i = 0; i < users; i++) {
+            for (long friendId : friends[i]) {
+                userStorage.addFriend(i + 1, friendId);
+            }
+        }
+    }
+
+    public Film film(int i) {
+        int data = i % films;
+        Film film = Film.builder()
+                .name("Film " + (i + 1))
+                .description("Description " + (i + 1))
+                .releaseDate(releaseDate(i))
+                .duration(90 + i % 60)
+                .mpa(new Mpa(ratings[data], null))
+                .build();
+        for (int genre : genres[data]) {
+            film.getGenres().add(new Genre(genre, null));
+        }
+        return film;
+    }
+
+    public User user(int i) {
+        return User.builder()
+                .email("user" + i + "@example.com")
+                .login("user" + i)
+                .name("User " + i)
+                .birthday(birthday(i))
+                .build();
+    }
+
+    private static LocalDate birthday(int i) {
+        return LocalDate.of(1960, 1, 1).plusDays(i % 15_000);
+    }
+
+    private static LocalDate releaseDate(int i) {
+        return LocalDate.of(1950, 1, 1).plusDays(i % 25_000);
+    }
+
+    private static long[] distinctIds(Random random, int count, int bound, long excluded) {
+        TreeSet<Long> ids = new TreeSet<>();
+        while (ids.size() < count) {
+            long id = 1 + random.nextInt(bound);
+            if (id != excluded) {
+                ids.add(id);
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
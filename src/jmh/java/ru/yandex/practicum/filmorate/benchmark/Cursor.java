@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+@State(Scope.Thread)
+public class Cursor {
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    long nextId(int bound) {
+        return 1 + random.nextInt(bound);
+    }
+
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}
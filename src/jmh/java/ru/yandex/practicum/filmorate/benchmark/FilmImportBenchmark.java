@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dao.FilmDb;
+import ru.yandex.practicum.filmorate.dao.GenreDb;
+import ru.yandex.practicum.filmorate.dao.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.dao.MpaDb;
+import ru.yandex.practicum.filmorate.dao.UserDb;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmImportBenchmark {
+    private static final int FILMS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class Import {
+        @Param("500")
+        public int batchSize;
+
+        FilmStorage filmStorage;
+        FilmImportService importService;
+        byte[] ndjson;
+
+        private HikariDataSource dataSource;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:import" + System.nanoTime());
+            dataSource.setUsername("sa");
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            GenreDb genreDb = new GenreDb(jdbcTemplate, meterRegistry);
+            genreDb.refresh();
+            MpaDb mpaDb = new MpaDb(jdbcTemplate, meterRegistry);
+            mpaDb.refresh();
+            LikeWriteBehind likeWriteBehind = new LikeWriteBehind(jdbcTemplate,
+                    new TransactionTemplate(transactionManager), meterRegistry, false, 10_000, 500, 100, 3, 1_000);
+            FilmDb filmDb = new FilmDb(jdbcTemplate, new UserDb(jdbcTemplate, meterRegistry), genreDb, mpaDb,
+                    likeWriteBehind, meterRegistry);
+            filmDb.loadIndexes();
+
+            ProxyFactory proxyFactory = new ProxyFactory(filmDb);
+            proxyFactory.addAdvice(new TransactionInterceptor(transactionManager,
+                    new AnnotationTransactionAttributeSource()));
+            filmStorage = (FilmStorage) proxyFactory.getProxy();
+            ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+            importService = new FilmImportService(filmStorage, new FilmService(filmStorage), genreDb, mpaDb,
+                    objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), batchSize);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Film film : films()) {
+                objectMapper.writeValue(out, film);
+                out.write('\n');
+            }
+            ndjson = out.toByteArray();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            dataSource.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILMS)
+    public FilmImportResult importFilms(Import state) throws IOException {
+        return state.importService.importFilms(new ByteArrayInputStream(state.ndjson));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILMS)
+    public List<Film> createAll(Import state) {
+        List<Film> films = films();
+        for (int from = 0; from < films.size(); from += state.batchSize) {
+            state.filmStorage.createAll(films.subList(from, Math.min(films.size(), from + state.batchSize)));
+        }
+        return films;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILMS)
+    public List<Film> createOneByOne(Import state) {
+        List<Film> films = films();
+        for (Film film : films) {
+            state.filmStorage.create(film);
+        }
+        return films;
+    }
+
+    private static List<Film> films() {
+        List<Film> films = new ArrayList<>(FILMS);
+        for (int i = 0; i < FILMS; i++) {
+            Film film = Film.builder()
+                    .name("Imported " + i)
+                    .description("Imported film " + i)
+                    .releaseDate(LocalDate.of(1950, 1, 1).plusDays(i))
+                    .duration(90 + i % 60)
+                    .mpa(new Mpa(1 + i % 5, null))
+                    .build();
+            film.getGenres().add(new Genre(1 + i % 3, null));
+            film.getGenres().add(new Genre(4 + i % 3, null));
+            films.add(film);
+        }
+        return films;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmStorageBenchmark {
+    private static final int CREATE_BATCH_SIZE = 100;
+
+    @Benchmark
+    public Map<Long, Film> getAll(StorageState state) {
+        return state.filmStorage.getAll();
+    }
+
+    @Benchmark
+    public Film get(StorageState state, Cursor cursor) {
+        return state.filmStorage.get(cursor.nextId(state.films));
+    }
+
+    @Benchmark
+    public List<Film> getPage(StorageState state, Cursor cursor) {
+        return state.filmStorage.getPage(cursor.nextInt(state.films), 100);
+    }
+
+    @Benchmark
+    public List<Film> getMostPopular(StorageState state) {
+        return state.filmStorage.getMostPopular(10);
+    }
+
+    @Benchmark
+    public List<Film> getMostPopularByGenre(StorageState state, Cursor cursor) {
+        return state.filmStorage.getMostPopular(10, 1 + cursor.nextInt(6), null);
+    }
+
+    @Benchmark
+    public List<Film> findMostPopular(StorageState state) {
+        return new FilmService(state.filmStorage).findMostPopular(10);
+    }
+
+    @Benchmark
+    public Film create(StorageState state, Cursor cursor) {
+        return state.filmStorage.create(state.data.film(cursor.nextInt(state.films)));
+    }
+
+    @Benchmark
+    public List<Film> createAll(StorageState state, Cursor cursor) {
+        int from = cursor.nextInt(state.films);
+        List<Film> films = new ArrayList<>(CREATE_BATCH_SIZE);
+        for (int i = 0; i < CREATE_BATCH_SIZE; i++) {
+            films.add(state.data.film(from + i));
+        }
+        return state.filmStorage.createAll(films);
+    }
+
+    @Benchmark
+    public Film update(StorageState state, Cursor cursor) {
+        int i = cursor.nextInt(state.films);
+        Film film = state.data.film(i);
+        film.setId(i + 1L);
+        return state.filmStorage.update(film);
+    }
+
+    @Benchmark
+    public void addAndDeleteLike(StorageState state, Cursor cursor) {
+        long filmId = cursor.nextId(state.films);
+        long userId = state.spareUserId(cursor.nextInt(StorageState.SPARE_USERS));
+        state.filmStorage.addLike(filmId, userId);
+        state.filmStorage.deleteLike(filmId, userId);
+    }
+
+    @Benchmark
+    public List<Film> getRecommendations(StorageState state, Cursor cursor) {
+        return state.filmStorage.getRecommendations(cursor.nextId(state.users), 10);
+    }
+
+    @Benchmark
+    public List<Film> search(StorageState state, Cursor cursor) {
+        return state.filmStorage.search("film " + cursor.nextId(state.films), true, true, 10);
+    }
+
+    @Benchmark
+    public boolean exists(StorageState state, Cursor cursor) {
+        return state.filmStorage.exists(cursor.nextId(state.films));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.dao.FriendGraph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FriendGraphBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Graph {
+        @Param("200000")
+        public int users;
+
+        @Param("2000")
+        public int friendsPerUser;
+
+        FriendGraph graph;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(17);
+            int[] from = new int[friendsPerUser * (friendsPerUser + 1)];
+            int[] to = new int[from.length];
+            int edges = 0;
+            for (int friend = 2; friend <= friendsPerUser + 1; friend++) {
+                from[edges] = 1;
+                to[edges++] = friend;
+                for (int i = 0; i < friendsPerUser; i++) {
+                    from[edges] = friend;
+                    to[edges++] = 1 + random.nextInt(users);
+                }
+            }
+            graph = new FriendGraph();
+            graph.load(from, to, edges);
+        }
+    }
+
+    @Benchmark
+    public int[] recommendForUserWithThousandsOfFriends(Graph state) {
+        return state.graph.recommend(1, 10);
+    }
+}
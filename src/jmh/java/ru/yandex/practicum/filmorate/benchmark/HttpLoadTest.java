@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.dao.FilmDb;
+import ru.yandex.practicum.filmorate.dao.UserDb;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public final class HttpLoadTest {
+    private final int users;
+    private final int films;
+    private final int duration;
+    private final int warmup;
+
+    private HttpLoadTest(Map<String, String> options) {
+        users = Integer.parseInt(options.getOrDefault("users", "10000"));
+        films = Integer.parseInt(options.getOrDefault("films", "2000"));
+        duration = Integer.parseInt(options.getOrDefault("duration", "10"));
+        warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+        List<Integer> clients = Arrays.stream(options.getOrDefault("clients", "16,64,256,1024").split(","))
+                .map(Integer::parseInt)
+                .collect(Collectors.toList());
+        HttpLoadTest loadTest = new HttpLoadTest(options);
+
+        System.out.printf("%-8s %8s %10s %8s %10s %8s %8s%n", "mode", "clients", "requests", "errors", "rps",
+                "p50 ms", "p99 ms");
+        for (String mode : options.getOrDefault("modes", "classic,async").split(",")) {
+            loadTest.run(mode, clients);
+        }
+    }
+
+    private void run(String mode, List<Integer> clients) throws InterruptedException {
+        try (ConfigurableApplicationContext context = start("async".equals(mode))) {
+            String baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            try {
+                double sustained = 0;
+                for (int concurrency : clients) {
+                    drive(client, baseUri, concurrency, warmup);
+                    Result result = drive(client, baseUri, concurrency, duration);
+                    System.out.printf("%-8s %8d %10d %8d %10.0f %8.2f %8.2f%n", mode, concurrency, result.requests,
+                            result.errors, result.rps, result.latency.getValueAtPercentile(50) / 1e3,
+                            result.latency.getValueAtPercentile(99) / 1e3);
+                    if (result.errors == 0) {
+                        sustained = Math.max(sustained, result.rps);
+                    }
+                }
+                System.out.printf("%-8s max sustained rps (no errors): %.0f%n", mode, sustained);
+            } finally {
+                clientExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean async) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:load" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "--filmorate.async.enabled=" + async);
+        new BenchmarkData(users, films, 50, 20).seed(context.getBean(JdbcTemplate.class));
+        context.getBean(UserDb.class).loadFriendGraph();
+        context.getBean(FilmDb.class).loadIndexes();
+        return context;
+    }
+
+    private Result drive(HttpClient client, String baseUri, int concurrency, int seconds)
+            throws InterruptedException {
+        Histogram latency = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+        AtomicLong errors = new AtomicLong();
+        Semaphore slots = new Semaphore(concurrency);
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.SECONDS.toNanos(seconds);
+        long requests = 0;
+        while (System.nanoTime() < deadline) {
+            slots.acquire();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + nextPath(requests++)))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latency.recordValue(Math.min(latency.getHighestTrackableValue(),
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent)));
+                        if (error != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        slots.release();
+                    });
+        }
+        slots.acquire(concurrency);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        return new Result(requests, errors.get(), requests / elapsed, latency);
+    }
+
+    private String nextPath(long request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch ((int) (request % 4)) {
+            case 0:
+                return "/films/" + (1 + random.nextInt(films));
+            case 1:
+                return "/films/popular?count=10";
+            case 2:
+                return "/users/" + (1 + random.nextInt(users)) + "/friends/common/" + (1 + random.nextInt(users));
+            default:
+                return "/users/" + (1 + random.nextInt(users)) + "/friends";
+        }
+    }
+
+    private static final class Result {
+        private final long requests;
+        private final long errors;
+        private final double rps;
+        private final Histogram latency;
+
+        private Result(long requests, long errors, double rps, Histogram latency) {
+            this.requests = requests;
+            this.errors = errors;
+            this.rps = rps;
+            this.latency = latency;
+        }
+    }
+}
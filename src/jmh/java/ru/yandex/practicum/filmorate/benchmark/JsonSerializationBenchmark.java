@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.controller.JsonConfig;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private static final List<Genre> GENRES = List.of(new Genre(1, "Комедия"), new Genre(2, "Драма"),
+            new Genre(3, "Мультфильм"), new Genre(4, "Триллер"), new Genre(5, "Документальный"),
+            new Genre(6, "Боевик"));
+    private static final List<Mpa> RATINGS = List.of(new Mpa(1, "G"), new Mpa(2, "PG"), new Mpa(3, "PG-13"),
+            new Mpa(4, "R"), new Mpa(5, "NC-17"));
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+        @Param({"default", "tuned"})
+        public String mapper;
+
+        @Param("2000")
+        public int films;
+
+        ObjectMapper objectMapper;
+        List<Film> list;
+
+        @Setup
+        public void setUp() throws IOException {
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            if ("tuned".equals(mapper)) {
+                objectMapper.registerModules(new BlackbirdModule(), JsonConfig.referenceData());
+            }
+            Random random = new Random(42);
+            list = new ArrayList<>(films);
+            for (int i = 1; i <= films; i++) {
+                Film film = Film.builder()
+                        .id((long) i)
+                        .name("Film " + i)
+                        .description("Description of film " + i + " with a plot of average length")
+                        .releaseDate(LocalDate.of(1950 + random.nextInt(70), 1 + random.nextInt(12), 1))
+                        .duration(60 + random.nextInt(120))
+                        .likeCount(random.nextInt(1000))
+                        .mpa(RATINGS.get(random.nextInt(RATINGS.size())))
+                        .build();
+                for (int genre = 1 + random.nextInt(3); genre > 0; genre--) {
+                    film.getGenres().add(GENRES.get(random.nextInt(GENRES.size())));
+                }
+                list.add(film);
+            }
+
+            byte[] json = objectMapper.writeValueAsBytes(list);
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (OutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(json);
+            }
+            System.out.printf("%n%d films: %d bytes, %d bytes gzip%n", films, json.length, gzipped.size());
+        }
+    }
+
+    @Benchmark
+    public long writeFilms(Payload payload) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        payload.objectMapper.writeValue(out, payload.list);
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
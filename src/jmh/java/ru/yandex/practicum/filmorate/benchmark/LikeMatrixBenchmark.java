@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.dao.LikeMatrix;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LikeMatrixBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Likes {
+        @Param("20000")
+        public int users;
+
+        @Param("5000")
+        public int films;
+
+        @Param("50")
+        public int likesPerUser;
+
+        LikeMatrix matrix;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(29);
+            int[] filmIds = new int[users * likesPerUser];
+            int[] userIds = new int[filmIds.length];
+            int likes = 0;
+            for (int user = 1; user <= users; user++) {
+                Set<Integer> liked = new TreeSet<>();
+                while (liked.size() < likesPerUser) {
+                    liked.add(1 + (int) Math.abs(random.nextGaussian() * films / 4) % films);
+                }
+                for (int film : liked) {
+                    filmIds[likes] = film;
+                    userIds[likes++] = user;
+                }
+            }
+            matrix = new LikeMatrix();
+            matrix.load(filmIds, userIds, likes);
+        }
+    }
+
+    @Benchmark
+    public int[] recommend(Likes state, Cursor cursor) {
+        return state.matrix.recommend((int) cursor.nextId(state.users), 10);
+    }
+}
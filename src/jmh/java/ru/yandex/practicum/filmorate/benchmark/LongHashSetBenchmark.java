@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongHashSetBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Likes {
+        @Param({"HashSet", "LongHashSet"})
+        public String set;
+
+        @Param("1000000")
+        public int likes;
+
+        @Param("100")
+        public int likesPerFilm;
+
+        long[] userIds;
+        List<Set<Long>> films;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(7);
+            userIds = new long[likes];
+            for (int i = 0; i < likes; i++) {
+                userIds[i] = 1_000L + random.nextInt(1_000_000);
+            }
+            films = fill(this);
+        }
+
+        Set<Long> newSet() {
+            return "LongHashSet".equals(set) ? new LongHashSet() : new HashSet<>();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+
+        static long usedAfterGc() {
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return MEMORY.getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    @Benchmark
+    public List<Set<Long>> fillFilms(Likes state) {
+        return fill(state);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 1)
+    public List<Set<Long>> retainedFilms(Likes state, Heap heap) {
+        long before = Heap.usedAfterGc();
+        List<Set<Long>> films = fill(state);
+        heap.retainedBytes = Heap.usedAfterGc() - before;
+        return films;
+    }
+
+    @Benchmark
+    public int containsLikes(Likes state) {
+        int found = 0;
+        for (int i = 0; i < state.userIds.length; i++) {
+            if (state.films.get(i / state.likesPerFilm).contains(state.userIds[i])) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static List<Set<Long>> fill(Likes state) {
+        List<Set<Long>> films = new ArrayList<>(state.likes / state.likesPerFilm);
+        Set<Long> likes = null;
+        for (int i = 0; i < state.userIds.length; i++) {
+            if (i % state.likesPerFilm == 0) {
+                likes = state.newSet();
+                films.add(likes);
+            }
+            likes.add(state.userIds[i]);
+        }
+        return films;
+    }
+}
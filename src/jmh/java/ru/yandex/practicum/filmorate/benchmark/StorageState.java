@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dao.FilmDb;
+import ru.yandex.practicum.filmorate.dao.GenreDb;
+import ru.yandex.practicum.filmorate.dao.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.dao.MpaDb;
+import ru.yandex.practicum.filmorate.dao.UserDb;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+@State(Scope.Benchmark)
+public class StorageState {
+    static final int SPARE_USERS = 1_000;
+
+    @Param({"db", "inMemory"})
+    public String storage;
+
+    @Param("10000")
+    public int users;
+
+    @Param("2000")
+    public int films;
+
+    @Param("50")
+    public int likesPerFilm;
+
+    @Param("20")
+    public int friendsPerUser;
+
+    @Param("false")
+    public boolean writeBehind;
+
+    @Param("64")
+    public int queryCacheSize;
+
+    FilmStorage filmStorage;
+    UserStorage userStorage;
+    BenchmarkData data;
+
+    private HikariDataSource dataSource;
+    private LikeWriteBehind likeWriteBehind;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        data = new BenchmarkData(users, films, likesPerFilm, friendsPerUser);
+        if ("db".equals(storage)) {
+            dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:benchmark" + System.nanoTime() + ";QUERY_CACHE_SIZE=" + queryCacheSize);
+            dataSource.setUsername("sa");
+            Flyway.configure().dataSource(dataSource).load().migrate();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            data.seed(jdbcTemplate);
+            GenreDb genreDb = new GenreDb(jdbcTemplate, meterRegistry);
+            genreDb.refresh();
+            MpaDb mpaDb = new MpaDb(jdbcTemplate, meterRegistry);
+            mpaDb.refresh();
+            UserDb userDb = new UserDb(jdbcTemplate, meterRegistry);
+            userDb.loadFriendGraph();
+            userStorage = transactional(userDb, UserStorage.class, transactionManager);
+            likeWriteBehind = new LikeWriteBehind(jdbcTemplate, new TransactionTemplate(transactionManager),
+                    meterRegistry, writeBehind, 10_000, 500, 100, 3, 1_000);
+            likeWriteBehind.start();
+            FilmDb filmDb = new FilmDb(jdbcTemplate, userStorage, genreDb, mpaDb, likeWriteBehind, meterRegistry);
+            filmDb.loadIndexes();
+            filmStorage = transactional(filmDb, FilmStorage.class, transactionManager);
+        } else {
+            userStorage = new InMemoryUserStorage();
+            filmStorage = new InMemoryFilmStorage(userStorage);
+            data.seed(filmStorage, userStorage);
+        }
+        for (int i = 1; i <= SPARE_USERS; i++) {
+            userStorage.create(data.user(users + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws InterruptedException {
+        if (likeWriteBehind != null) {
+            likeWriteBehind.stop();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    private static <T> T transactional(T target, Class<T> type, PlatformTransactionManager transactionManager) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager,
+                new AnnotationTransactionAttributeSource()));
+        return type.cast(proxyFactory.getProxy());
+    }
+
+    long spareUserId(int i) {
+        return users + 1 + i % SPARE_USERS;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserStorageBenchmark {
+
+    @Benchmark
+    public Map<Long, User> findAll(StorageState state) {
+        return state.userStorage.findAll();
+    }
+
+    @Benchmark
+    public User getById(StorageState state, Cursor cursor) {
+        return state.userStorage.getById(cursor.nextId(state.users));
+    }
+
+    @Benchmark
+    public List<User> findPage(StorageState state, Cursor cursor) {
+        return state.userStorage.findPage(cursor.nextInt(state.users), 100);
+    }
+
+    @Benchmark
+    public User create(StorageState state, Cursor cursor) {
+        return state.userStorage.create(state.data.user(cursor.nextInt(state.users) + 1));
+    }
+
+    @Benchmark
+    public User update(StorageState state, Cursor cursor) {
+        int i = cursor.nextInt(state.users) + 1;
+        User user = state.data.user(i);
+        user.setId((long) i);
+        return state.userStorage.update(user);
+    }
+
+    @Benchmark
+    public List<User> getAllFriends(StorageState state, Cursor cursor) {
+        return state.userStorage.getAllFriends(cursor.nextId(state.users));
+    }
+
+    @Benchmark
+    public List<User> getMutualFriends(StorageState state, Cursor cursor) {
+        return state.userStorage.getMutualFriends(cursor.nextId(state.users), cursor.nextId(state.users));
+    }
+
+    @Benchmark
+    public int getMutualFriendsCount(StorageState state, Cursor cursor) {
+        return state.userStorage.getMutualFriendsCount(cursor.nextId(state.users), cursor.nextId(state.users));
+    }
+
+    @Benchmark
+    public List<User> getRecommendations(StorageState state, Cursor cursor) {
+        return state.userStorage.getRecommendations(cursor.nextId(state.users), 10);
+    }
+
+    @Benchmark
+    public void addAndRemoveFriend(StorageState state, Cursor cursor) {
+        long userId = cursor.nextId(state.users);
+        long friendId = state.spareUserId(cursor.nextInt(StorageState.SPARE_USERS));
+        state.userStorage.addFriend(userId, friendId);
+        state.userStorage.removeFromFriends(userId, friendId);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+final class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+    private final HandlerMethodReturnValueHandler bodyHandler;
+    private final HandlerMethodReturnValueHandler entityHandler;
+    private final HandlerMethodReturnValueHandler asyncHandler;
+
+    CompletedFutureReturnValueHandler(HandlerMethodReturnValueHandler bodyHandler,
+                                      HandlerMethodReturnValueHandler entityHandler,
+                                      HandlerMethodReturnValueHandler asyncHandler) {
+        this.bodyHandler = bodyHandler;
+        this.entityHandler = entityHandler;
+        this.asyncHandler = asyncHandler;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+        if (future == null || !future.isDone()) {
+            asyncHandler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+        Object result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        HandlerMethodReturnValueHandler handler = result instanceof HttpEntity ? entityHandler : bodyHandler;
+        handler.handleReturnValue(result, new FutureResultParameter(returnType), mavContainer, webRequest);
+    }
+
+    private static final class FutureResultParameter extends MethodParameter {
+        private final ResolvableType resultType;
+
+        private FutureResultParameter(MethodParameter returnType) {
+            super(returnType);
+            this.resultType = ResolvableType.forMethodParameter(returnType).getGeneric();
+        }
+
+        private FutureResultParameter(FutureResultParameter original) {
+            super(original);
+            this.resultType = original.resultType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return resultType.toClass();
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return resultType.getType();
+        }
+
+        @Override
+        public FutureResultParameter clone() {
+            return new FutureResultParameter(this);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Enumeration;
+
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    static boolean isNotModified(HttpServletRequest request, long version) {
+        if (version == 0) {
+            return false;
+        }
+        Enumeration<String> ifNoneMatch = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = etag(version);
+        while (ifNoneMatch.hasMoreElements()) {
+            for (String candidate : ifNoneMatch.nextElement().split(",")) {
+                candidate = candidate.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals(etag) || candidate.equals("*")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(long version, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag(version))
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    static <T> ResponseEntity<T> ok(T body, long version, CacheControl cacheControl) {
+        if (version == 0) {
+            return ResponseEntity.ok(body);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag(version))
+                .cacheControl(cacheControl)
+                .body(body);
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -9,6 +9,7 @@ import ru.yandex.practicum.filmorate.exceptions.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @RestControllerAdvice("ru.yandex.practicum.filmorate.controller")
@@ -57,4 +58,13 @@ public class ErrorHandler {
         errorResponse.put("error", e.getMessage());
         return errorResponse;
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> handleRejectedExecution(RejectedExecutionException e) {
+        log.warn("Rejected Execution Exception: " + e.getMessage());
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.getMessage());
+        return errorResponse;
+    }
 }
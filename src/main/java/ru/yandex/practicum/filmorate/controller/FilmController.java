@@ -1,62 +1,158 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @Slf4j
 @RequestMapping("/films")
 public class FilmController {
+    private static final CacheControl FILM_CACHE_CONTROL = CacheControl.noCache();
+    private static final CacheControl PRIVATE_FILM_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    private static final CacheControl POPULAR_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.SECONDS);
+    private static final CacheControl PRIVATE_POPULAR_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.SECONDS)
+            .cachePrivate();
+
     private final FilmService filmService;
+    private final FilmImportService filmImportService;
+    private final ObjectMapper objectMapper;
+    private final RequestExecutor requestExecutor;
 
     @Autowired
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, FilmImportService filmImportService, ObjectMapper objectMapper,
+                          RequestExecutor requestExecutor) {
         this.filmService = filmService;
+        this.filmImportService = filmImportService;
+        this.objectMapper = objectMapper;
+        this.requestExecutor = requestExecutor;
     }
 
     @PostMapping
-    public Film create(@Valid @RequestBody Film film) {
-        return filmService.create(film);
+    public CompletableFuture<Film> create(@Valid @RequestBody Film film) {
+        return requestExecutor.supply(() -> filmService.create(film));
+    }
+
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public FilmImportResult importFilms(InputStream body) throws IOException {
+        return filmImportService.importFilms(body);
     }
 
     @PutMapping
-    public Film update(@Valid @RequestBody Film film) {
-        return filmService.update(film);
+    public CompletableFuture<Film> update(@Valid @RequestBody Film film) {
+        return requestExecutor.supply(() -> filmService.update(film));
     }
 
     @GetMapping
-    public Collection<Film> findAll() {
-        return filmService.findAll();
+    public CompletableFuture<Collection<Film>> findAll(@RequestParam(name = "userId", required = false) Long userId) {
+        return requestExecutor.supply(() -> filmService.markLikedBy(filmService.findAll(), userId));
+    }
+
+    @GetMapping(params = "limit")
+    public CompletableFuture<List<Film>> findPage(@RequestParam(name = "after", defaultValue = "0") long after,
+                                                  @RequestParam(name = "limit") int limit,
+                                                  @RequestParam(name = "userId", required = false) Long userId) {
+        return requestExecutor.supply(() -> filmService.markLikedBy(filmService.findPage(after, limit), userId));
+    }
+
+    @GetMapping(params = {"stream=true", "!limit"})
+    public ResponseEntity<StreamingResponseBody> streamAll(
+            @RequestParam(name = "after", required = false) Long after) {
+        if (after != null) {
+            log.warn("Параметр after передан вместе с stream=true");
+            throw new ValidationException("Параметр after не поддерживается вместе с stream=true, используйте limit!");
+        }
+        return JsonArrayStream.of(objectMapper, filmService::streamAll);
     }
 
     @GetMapping("/{id}")
-    public Film find(@PathVariable(name = "id") Long id) throws FilmNotFoundException {
-        return filmService.find(id);
+    public CompletableFuture<ResponseEntity<Film>> find(@PathVariable(name = "id") Long id,
+                                                        @RequestParam(name = "userId", required = false) Long userId,
+                                                        HttpServletRequest request)
+            throws FilmNotFoundException {
+        long version = filmService.getVersion(id);
+        CacheControl cacheControl = userId == null ? FILM_CACHE_CONTROL : PRIVATE_FILM_CACHE_CONTROL;
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return CompletableFuture.completedFuture(ConditionalRequests.notModified(version, cacheControl));
+        }
+        return requestExecutor.supply(() ->
+                ConditionalRequests.ok(filmService.markLikedBy(filmService.find(id), userId), version, cacheControl));
+    }
+
+    @GetMapping("/{id}/likes")
+    public CompletableFuture<List<Long>> findLikes(@PathVariable(name = "id") Long id,
+                                                   @RequestParam(name = "after", defaultValue = "0") long after,
+                                                   @RequestParam(name = "limit", defaultValue = "100") int limit)
+            throws FilmNotFoundException {
+        return requestExecutor.supply(() -> filmService.findLikes(id, after, limit));
     }
 
     @PutMapping("/{id}/like/{userId}")
-    public void like(@PathVariable(name = "id") Long id,
-                      @PathVariable(name = "userId") Long userId) throws FilmNotFoundException, UserNotFoundException {
-        filmService.like(id, userId);
+    public CompletableFuture<Void> like(@PathVariable(name = "id") Long id,
+                                        @PathVariable(name = "userId") Long userId)
+            throws FilmNotFoundException, UserNotFoundException {
+        return requestExecutor.run(() -> filmService.like(id, userId));
+    }
+
+    @PutMapping("/likes")
+    public CompletableFuture<Void> likeAll(@RequestBody List<Like> likes)
+            throws FilmNotFoundException, UserNotFoundException {
+        return requestExecutor.run(() -> filmService.likeAll(likes));
     }
 
     @DeleteMapping("/{id}/like/{userId}")
-    public void unlike(@PathVariable(name = "id") Long id,
-                        @PathVariable(name = "userId") Long userId) throws FilmNotFoundException, UserNotFoundException {
-        filmService.unlike(id, userId);
+    public CompletableFuture<Void> unlike(@PathVariable(name = "id") Long id,
+                                          @PathVariable(name = "userId") Long userId)
+            throws FilmNotFoundException, UserNotFoundException {
+        return requestExecutor.run(() -> filmService.unlike(id, userId));
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<List<Film>> search(@RequestParam(name = "query") String query,
+                                                @RequestParam(name = "by", defaultValue = "title,description")
+                                                String by,
+                                                @RequestParam(name = "count", defaultValue = "10") int count,
+                                                @RequestParam(name = "userId", required = false) Long userId) {
+        return requestExecutor.supply(() -> filmService.markLikedBy(filmService.search(query, by, count), userId));
     }
 
     @GetMapping("/popular")
-    public List<Film> findMostPopular(@RequestParam(name = "count", defaultValue = "10") int count) {
-        return filmService.findMostPopular(count);
+    public CompletableFuture<ResponseEntity<List<Film>>> findMostPopular(
+            @RequestParam(name = "count", defaultValue = "10") int count,
+            @RequestParam(name = "genreId", required = false) Integer genreId,
+            @RequestParam(name = "year", required = false) Integer year,
+            @RequestParam(name = "userId", required = false) Long userId,
+            HttpServletRequest request) {
+        long version = filmService.getVersion();
+        CacheControl cacheControl = userId == null ? POPULAR_CACHE_CONTROL : PRIVATE_POPULAR_CACHE_CONTROL;
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return CompletableFuture.completedFuture(ConditionalRequests.notModified(version, cacheControl));
+        }
+        return requestExecutor.supply(() -> ConditionalRequests.ok(
+                filmService.markLikedBy(filmService.findMostPopular(count, genreId, year), userId), version,
+                cacheControl));
     }
 }
\ No newline at end of file
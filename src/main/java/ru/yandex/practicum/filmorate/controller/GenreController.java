@@ -1,6 +1,8 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,11 +10,15 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/genres")
 public class GenreController {
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
     private final GenreService genreService;
 
     @Autowired
@@ -21,12 +27,20 @@ public class GenreController {
     }
 
     @GetMapping
-    public Collection<Genre> getAllGenres() {
-        return genreService.getAllGenres();
+    public ResponseEntity<Collection<Genre>> getAllGenres(HttpServletRequest request) {
+        long version = genreService.getVersion();
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return ConditionalRequests.notModified(version, CACHE_CONTROL);
+        }
+        return ConditionalRequests.ok(genreService.getAllGenres(), version, CACHE_CONTROL);
     }
 
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable int id) {
-        return genreService.get(id);
+    public ResponseEntity<Genre> getGenreById(@PathVariable int id, HttpServletRequest request) {
+        long version = genreService.getVersion();
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return ConditionalRequests.notModified(version, CACHE_CONTROL);
+        }
+        return ConditionalRequests.ok(genreService.get(id), version, CACHE_CONTROL);
     }
 }
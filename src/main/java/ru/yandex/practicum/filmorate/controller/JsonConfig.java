@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.Set;
+
+@Configuration
+public class JsonConfig {
+    private static final Set<Class<?>> REFERENCE_TYPES = Set.of(Genre.class, Mpa.class);
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Module referenceDataModule() {
+        return referenceData();
+    }
+
+    public static Module referenceData() {
+        SimpleModule module = new SimpleModule("filmorate-reference-data");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                if (!REFERENCE_TYPES.contains(beanDesc.getBeanClass())) {
+                    return serializer;
+                }
+                return new PreSerializedSerializer<>((Class<Object>) beanDesc.getBeanClass(),
+                        (JsonSerializer<Object>) serializer);
+            }
+        });
+        return module;
+    }
+}
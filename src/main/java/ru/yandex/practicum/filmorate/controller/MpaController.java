@@ -1,6 +1,8 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,11 +10,15 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/mpa")
 public class MpaController {
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
     private final MpaService mpaService;
 
     @Autowired
@@ -21,12 +27,20 @@ public class MpaController {
     }
 
     @GetMapping
-    public Collection<Mpa> getAllMpa() {
-        return mpaService.getAllMpa();
+    public ResponseEntity<Collection<Mpa>> getAllMpa(HttpServletRequest request) {
+        long version = mpaService.getVersion();
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return ConditionalRequests.notModified(version, CACHE_CONTROL);
+        }
+        return ConditionalRequests.ok(mpaService.getAllMpa(), version, CACHE_CONTROL);
     }
 
     @GetMapping("/{id}")
-    public Mpa getMpaById(@PathVariable int id) {
-        return mpaService.getMpaById(id);
+    public ResponseEntity<Mpa> getMpaById(@PathVariable int id, HttpServletRequest request) {
+        long version = mpaService.getVersion();
+        if (ConditionalRequests.isNotModified(request, version)) {
+            return ConditionalRequests.notModified(version, CACHE_CONTROL);
+        }
+        return ConditionalRequests.ok(mpaService.getMpaById(id), version, CACHE_CONTROL);
     }
 }
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+final class PreSerializedSerializer<T> extends StdSerializer<T> implements ContextualSerializer, ResolvableSerializer {
+    private static final int MAX_ENTRIES = 256;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonSerializer<T> serializer;
+    private final ConcurrentMap<T, SerializableString> rendered = new ConcurrentHashMap<>();
+
+    PreSerializedSerializer(Class<T> type, JsonSerializer<T> serializer) {
+        super(type);
+        this.serializer = serializer;
+    }
+
+    @Override
+    public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        SerializableString json = rendered.get(value);
+        if (json == null) {
+            StringWriter writer = new StringWriter();
+            try (JsonGenerator raw = JSON_FACTORY.createGenerator(writer)) {
+                serializer.serialize(value, raw, provider);
+            }
+            json = new SerializedString(writer.toString());
+            if (rendered.size() < MAX_ENTRIES) {
+                rendered.putIfAbsent(value, json);
+            }
+        }
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (serializer instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) serializer).resolve(provider);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        if (!(serializer instanceof ContextualSerializer)) {
+            return this;
+        }
+        JsonSerializer<?> contextual = ((ContextualSerializer) serializer).createContextual(provider, property);
+        return contextual == serializer ? this : new PreSerializedSerializer<>(handledType(), (JsonSerializer<T>) contextual);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.service.MpaService;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "referencedata")
+@Slf4j
+public class ReferenceDataEndpoint {
+    private final GenreService genreService;
+    private final MpaService mpaService;
+
+    @Autowired
+    public ReferenceDataEndpoint(GenreService genreService, MpaService mpaService) {
+        this.genreService = genreService;
+        this.mpaService = mpaService;
+    }
+
+    @ReadOperation
+    public Map<String, Long> versions() {
+        return Map.of("genres", genreService.getVersion(), "mpa", mpaService.getVersion());
+    }
+
+    @WriteOperation
+    public Map<String, Long> refresh() {
+        log.info("Перечитываем жанры и рейтинги по запросу");
+        return Map.of("genres", genreService.refresh(), "mpa", mpaService.refresh());
+    }
+}
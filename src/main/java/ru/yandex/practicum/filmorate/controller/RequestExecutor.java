@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementCounter;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementsInterceptor;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class RequestExecutor {
+    private final ThreadPoolExecutor executor;
+
+    public RequestExecutor(MeterRegistry meterRegistry,
+                           @Value("${filmorate.async.enabled:false}") boolean enabled,
+                           @Value("${filmorate.async.threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+                           int threads,
+                           @Value("${filmorate.async.queue-capacity:1000}") int queueCapacity) {
+        if (!enabled) {
+            executor = null;
+            return;
+        }
+        Counter rejected = meterRegistry.counter("filmorate.async.rejected");
+        AtomicInteger number = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "request-jdbc-" + number.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Очередь запросов к базе данных переполнена");
+                });
+        executor.prestartAllCoreThreads();
+        new ExecutorServiceMetrics(executor, "request-jdbc", Tags.empty()).bindTo(meterRegistry);
+        log.info("Асинхронная обработка запросов включена: потоков {}, очередь {}", threads, queueCapacity);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> action) {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(action.get());
+        }
+        HttpServletRequest request = currentRequest();
+        return CompletableFuture.supplyAsync(() -> {
+            SqlStatementCounter.reset();
+            try {
+                return action.get();
+            } finally {
+                if (request != null) {
+                    request.setAttribute(SqlStatementsInterceptor.STATEMENTS_ATTRIBUTE, SqlStatementCounter.get());
+                }
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Void> run(Runnable action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes
+                ? ((ServletRequestAttributes) attributes).getRequest()
+                : null;
+    }
+}
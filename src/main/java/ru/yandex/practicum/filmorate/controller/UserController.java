@@ -1,66 +1,127 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 import javax.validation.Valid;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/users")
 @Slf4j
 public class UserController {
     private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final RequestExecutor requestExecutor;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, FilmService filmService, ObjectMapper objectMapper,
+                          RequestExecutor requestExecutor) {
         this.userService = userService;
+        this.filmService = filmService;
+        this.objectMapper = objectMapper;
+        this.requestExecutor = requestExecutor;
     }
 
     @PostMapping
-    public User create(@Valid @RequestBody User user) {
-        return userService.create(user);
+    public CompletableFuture<User> create(@Valid @RequestBody User user) {
+        return requestExecutor.supply(() -> userService.create(user));
     }
 
     @PutMapping
-    public User update(@Valid @RequestBody User user) {
-        return userService.update(user);
+    public CompletableFuture<User> update(@Valid @RequestBody User user) {
+        return requestExecutor.supply(() -> userService.update(user));
     }
 
     @GetMapping
-    public Collection<User> findAll() {
-        return userService.findAll();
+    public CompletableFuture<Collection<User>> findAll() {
+        return requestExecutor.supply(userService::findAll);
+    }
+
+    @GetMapping(params = "limit")
+    public CompletableFuture<List<User>> findPage(@RequestParam(name = "after", defaultValue = "0") long after,
+                                                  @RequestParam(name = "limit") int limit) {
+        return requestExecutor.supply(() -> userService.findPage(after, limit));
+    }
+
+    @GetMapping(params = {"stream=true", "!limit"})
+    public ResponseEntity<StreamingResponseBody> streamAll(
+            @RequestParam(name = "after", required = false) Long after) {
+        if (after != null) {
+            log.warn("Параметр after передан вместе с stream=true");
+            throw new ValidationException("Параметр after не поддерживается вместе с stream=true, используйте limit!");
+        }
+        return JsonArrayStream.of(objectMapper, userService::streamAll);
     }
 
     @GetMapping("/{id}")
-    public User find(@PathVariable(name = "id") Long id) throws UserNotFoundException {
-        return userService.find(id);
+    public CompletableFuture<User> find(@PathVariable(name = "id") Long id) throws UserNotFoundException {
+        return requestExecutor.supply(() -> userService.find(id));
     }
 
     @PutMapping("/{id}/friends/{friendId}")
-    public void addFriend(@PathVariable(name = "id") Long id,
-                           @PathVariable(name = "friendId") Long friendId) throws UserNotFoundException {
-        userService.addFriend(id, friendId);
+    public CompletableFuture<Void> addFriend(@PathVariable(name = "id") Long id,
+                                             @PathVariable(name = "friendId") Long friendId)
+            throws UserNotFoundException {
+        return requestExecutor.run(() -> userService.addFriend(id, friendId));
+    }
+
+    @PutMapping("/{id}/friends")
+    public CompletableFuture<Void> addFriends(@PathVariable(name = "id") Long id, @RequestBody List<Long> friendIds)
+            throws UserNotFoundException {
+        return requestExecutor.run(() -> userService.addFriends(id, friendIds));
     }
 
     @DeleteMapping("/{id}/friends/{friendId}")
-    public void removeFriend(@PathVariable(name = "id") Long id,
-                              @PathVariable(name = "friendId") Long friendId) throws UserNotFoundException {
-        userService.removeFriend(id, friendId);
+    public CompletableFuture<Void> removeFriend(@PathVariable(name = "id") Long id,
+                                                @PathVariable(name = "friendId") Long friendId)
+            throws UserNotFoundException {
+        return requestExecutor.run(() -> userService.removeFriend(id, friendId));
     }
 
     @GetMapping("/{id}/friends")
-    public List<User> findFriends(@PathVariable(name = "id") Long id) throws UserNotFoundException {
-        return userService.findFriends(id);
+    public CompletableFuture<List<User>> findFriends(@PathVariable(name = "id") Long id)
+            throws UserNotFoundException {
+        return requestExecutor.supply(() -> userService.findFriends(id));
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public CompletableFuture<List<User>> findRecommendations(@PathVariable(name = "id") Long id,
+                                                             @RequestParam(name = "count", defaultValue = "10")
+                                                             int count) throws UserNotFoundException {
+        return requestExecutor.supply(() -> userService.findRecommendations(id, count));
+    }
+
+    @GetMapping("/{id}/recommendations/films")
+    public CompletableFuture<List<Film>> findFilmRecommendations(@PathVariable(name = "id") Long id,
+                                                                 @RequestParam(name = "count", defaultValue = "10")
+                                                                 int count) throws UserNotFoundException {
+        return requestExecutor.supply(() -> filmService.findRecommendations(id, count));
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
-    private List<User> findCommonFriends(@PathVariable("id") Long id,
-                                         @PathVariable("otherId") Long otherId) throws UserNotFoundException {
-        return userService.findCommonFriends(id, otherId);
+    private CompletableFuture<List<User>> findCommonFriends(@PathVariable("id") Long id,
+                                                            @PathVariable("otherId") Long otherId)
+            throws UserNotFoundException {
+        return requestExecutor.supply(() -> userService.findCommonFriends(id, otherId));
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}/count")
+    public CompletableFuture<Integer> countCommonFriends(@PathVariable("id") Long id,
+                                                         @PathVariable("otherId") Long otherId)
+            throws UserNotFoundException {
+        return requestExecutor.supply(() -> userService.countCommonFriends(id, otherId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Component("cachingFilmStorage")
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmStorage filmStorage;
+    private final EntityCache<Film> films;
+
+    public CachingFilmStorage(@Qualifier("filmDb") FilmStorage filmStorage, MeterRegistry meterRegistry,
+                              @Value("${filmorate.cache.films.maximum-size:10000}") long maximumSize,
+                              @Value("${filmorate.cache.films.ttl:60s}") Duration ttl,
+                              @Value("${filmorate.cache.not-found-ttl:10s}") Duration notFoundTtl) {
+        this.filmStorage = filmStorage;
+        this.films = new EntityCache<>("films", maximumSize, ttl, notFoundTtl, CachingFilmStorage::copy,
+                meterRegistry);
+    }
+
+    @Override
+    public Film create(Film film) {
+        Film created = filmStorage.create(film);
+        films.invalidate(created.getId());
+        return created;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        List<Film> created = filmStorage.createAll(newFilms);
+        created.forEach(film -> films.invalidate(film.getId()));
+        return created;
+    }
+
+    @Override
+    public Film update(Film film) {
+        Film updated = filmStorage.update(film);
+        films.invalidate(film.getId());
+        return updated;
+    }
+
+    @Override
+    public Map<Long, Film> getAll() {
+        return filmStorage.getAll();
+    }
+
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return filmStorage.getPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        filmStorage.streamAll(consumer);
+    }
+
+    @Override
+    public Film get(Long id) throws FilmNotFoundException {
+        return films.get(id, this::load)
+                .orElseThrow(() -> new FilmNotFoundException("Фильм с таким id не найден!"));
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        Boolean exists = films.exists(id);
+        return exists != null ? exists : filmStorage.exists(id);
+    }
+
+    @Override
+    public List<Film> getMostPopular(int count) {
+        return filmStorage.getMostPopular(count);
+    }
+
+    @Override
+    public List<Film> getMostPopular(int count, Integer genreId, Integer year) {
+        return filmStorage.getMostPopular(count, genreId, year);
+    }
+
+    @Override
+    public void addLike(Long filmId, Long userId) {
+        filmStorage.addLike(filmId, userId);
+        films.invalidate(filmId);
+    }
+
+    @Override
+    public void addLikes(Collection<Like> likes) {
+        filmStorage.addLikes(likes);
+        likes.forEach(like -> films.invalidate(like.getFilmId()));
+    }
+
+    @Override
+    public void deleteLike(Long filmId, Long userId) {
+        filmStorage.deleteLike(filmId, userId);
+        films.invalidate(filmId);
+    }
+
+    @Override
+    public List<Long> getLikes(long filmId, long afterUserId, int limit) {
+        return filmStorage.getLikes(filmId, afterUserId, limit);
+    }
+
+    @Override
+    public boolean isLikedBy(long filmId, long userId) {
+        return filmStorage.isLikedBy(filmId, userId);
+    }
+
+    @Override
+    public List<Film> getRecommendations(long userId, int count) {
+        return filmStorage.getRecommendations(userId, count);
+    }
+
+    @Override
+    public List<Film> search(String query, boolean byTitle, boolean byDescription, int count) {
+        return filmStorage.search(query, byTitle, byDescription, count);
+    }
+
+    @Override
+    public long getVersion() {
+        return filmStorage.getVersion();
+    }
+
+    @Override
+    public long getVersion(Long id) {
+        return filmStorage.getVersion(id);
+    }
+
+    private Optional<Film> load(long id) {
+        try {
+            return Optional.of(filmStorage.get(id));
+        } catch (FilmNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Film copy(Film film) {
+        Film copy = Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .rate(film.getRate())
+                .likeCount(film.getLikeCount())
+                .mpa(film.getMpa())
+                .build();
+        copy.getGenres().addAll(film.getGenres());
+        return copy;
+    }
+}
@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Component("cachingUserStorage")
+public class CachingUserStorage implements UserStorage {
+    private final UserStorage userStorage;
+    private final EntityCache<User> users;
+
+    public CachingUserStorage(@Qualifier("userDb") UserStorage userStorage, MeterRegistry meterRegistry,
+                              @Value("${filmorate.cache.users.maximum-size:100000}") long maximumSize,
+                              @Value("${filmorate.cache.users.ttl:60s}") Duration ttl,
+                              @Value("${filmorate.cache.not-found-ttl:10s}") Duration notFoundTtl) {
+        this.userStorage = userStorage;
+        this.users = new EntityCache<>("users", maximumSize, ttl, notFoundTtl, CachingUserStorage::copy,
+                meterRegistry);
+    }
+
+    @Override
+    public User create(User user) {
+        User created = userStorage.create(user);
+        if (created != null) {
+            users.invalidate(created.getId());
+        }
+        return created;
+    }
+
+    @Override
+    public User update(User user) {
+        User updated = userStorage.update(user);
+        users.invalidate(user.getId());
+        return updated;
+    }
+
+    @Override
+    public Map<Long, User> findAll() {
+        return userStorage.findAll();
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return userStorage.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        userStorage.streamAll(consumer);
+    }
+
+    @Override
+    public User getById(Long id) throws UserNotFoundException {
+        return users.get(id, this::load)
+                .orElseThrow(() -> new UserNotFoundException("Пользователь не найден!"));
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        Boolean exists = users.exists(id);
+        return exists != null ? exists : userStorage.exists(id);
+    }
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        userStorage.addFriend(userId, friendId);
+        users.invalidate(userId);
+    }
+
+    @Override
+    public void addFriends(long userId, Collection<Long> friendIds) {
+        userStorage.addFriends(userId, friendIds);
+        users.invalidate(userId);
+    }
+
+    @Override
+    public void removeFromFriends(long userId, long friendId) {
+        userStorage.removeFromFriends(userId, friendId);
+        users.invalidate(userId);
+    }
+
+    @Override
+    public List<User> getMutualFriends(long userId, long otherUserId) {
+        return userStorage.getMutualFriends(userId, otherUserId);
+    }
+
+    @Override
+    public int getMutualFriendsCount(long userId, long otherUserId) {
+        return userStorage.getMutualFriendsCount(userId, otherUserId);
+    }
+
+    @Override
+    public List<User> getAllFriends(long userId) {
+        return userStorage.getAllFriends(userId);
+    }
+
+    @Override
+    public List<User> getRecommendations(long userId, int count) {
+        return userStorage.getRecommendations(userId, count);
+    }
+
+    private Optional<User> load(long id) {
+        try {
+            return Optional.of(userStorage.getById(id));
+        } catch (UserNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .friends(user.getFriends() == null ? null : new LongHashSet(user.getFriends()))
+                .likedFilms(user.getLikedFilms() == null ? null : new LongHashSet(user.getLikedFilms()))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
+
+final class EntityCache<T> {
+    private final Cache<Long, Optional<T>> cache;
+    private final UnaryOperator<T> copy;
+
+    EntityCache(String name, long maximumSize, Duration ttl, Duration notFoundTtl, UnaryOperator<T> copy,
+                MeterRegistry meterRegistry) {
+        this.copy = copy;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Optional<T>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<T> entity, long currentTime) {
+                        return (entity.isPresent() ? ttl : notFoundTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<T> entity, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(id, entity, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<T> entity, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    Optional<T> get(long id, LongFunction<Optional<T>> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader::apply).map(copy);
+    }
+
+    Boolean exists(long id) {
+        Optional<T> entity = cache.getIfPresent(id);
+        return entity == null ? null : entity.isPresent();
+    }
+
+    void invalidate(long id) {
+        cache.invalidate(id);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(id));
+    }
+}
@@ -1,47 +1,153 @@
 package ru.yandex.practicum.filmorate.dao;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import javax.annotation.PostConstruct;
 import java.sql.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component("filmDb")
+@Timed(value = "filmorate.storage", histogram = true)
 public class FilmDb implements FilmStorage {
 
+    private static final int STREAM_PAGE_SIZE = 500;
+    private static final String INSERT_FILM = "INSERT INTO FILM (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID) " +
+            "VALUES (?, ?, ?, ?, ?);";
+    private static final String UPDATE_FILM = "UPDATE FILM SET NAME = ?, DESCRIPTION = ?, RELEASE_DATE = ?, " +
+            "RATING_ID = ?, DURATION = ? WHERE FILM_ID = ?;";
+    private static final String FIND_ALL = "SELECT * FROM FILM AS F;";
+    private static final String FIND_PAGE = "SELECT * FROM FILM AS F WHERE F.FILM_ID > ? ORDER BY F.FILM_ID LIMIT ?;";
+    private static final String FIND_BY_ID = "SELECT * FROM FILM AS F WHERE FILM_ID = ?;";
+    private static final String FIND_BY_IDS = "SELECT * FROM FILM AS F WHERE F.FILM_ID = ANY(?);";
+    private static final String FIND_MOST_POPULAR = "SELECT * FROM FILM AS F " +
+            "ORDER BY F.LIKES_COUNT DESC, F.FILM_ID LIMIT ?;";
+    private static final String EXISTS = "SELECT 1 FROM FILM WHERE FILM_ID = ? LIMIT 1;";
+    private static final String FIND_POPULARITY = "SELECT FILM_ID, RELEASE_DATE, LIKES_COUNT FROM FILM;";
+    private static final String FIND_TEXTS = "SELECT FILM_ID, NAME, DESCRIPTION FROM FILM;";
+    private static final String INSERT_GENRE = "INSERT INTO FILM_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?);";
+    private static final String DELETE_GENRES = "DELETE FROM FILM_GENRE WHERE FILM_ID = ?;";
+    private static final String FIND_GENRES = "SELECT FG.FILM_ID, FG.GENRE_ID FROM FILM_GENRE AS FG;";
+    private static final String FIND_GENRES_BY_FILM = "SELECT FG.FILM_ID, FG.GENRE_ID FROM FILM_GENRE AS FG " +
+            "WHERE FG.FILM_ID = ?;";
+    private static final String FIND_GENRES_BY_FILMS = "SELECT FG.FILM_ID, FG.GENRE_ID FROM FILM_GENRE AS FG " +
+            "WHERE FG.FILM_ID = ANY(?);";
+    private static final String INSERT_LIKE = "INSERT INTO FILM_LIKE (FILM_ID, USER_ID) VALUES (?, ?);";
+    private static final String DELETE_LIKE = "DELETE FROM FILM_LIKE WHERE FILM_ID = ? AND USER_ID = ?;";
+    private static final String UPDATE_LIKES_COUNT = "UPDATE FILM SET LIKES_COUNT = LIKES_COUNT + ? WHERE FILM_ID = ?;";
+    private static final String MERGE_LIKE = "MERGE INTO FILM_LIKE (FILM_ID, USER_ID) KEY (FILM_ID, USER_ID) " +
+            "VALUES (?, ?);";
+    private static final String RECOUNT_LIKES = "UPDATE FILM AS F SET LIKES_COUNT = " +
+            "(SELECT COUNT(*) FROM FILM_LIKE AS FL WHERE FL.FILM_ID = F.FILM_ID) WHERE F.FILM_ID = ANY(?);";
+    private static final String FIND_LIKE_TARGETS = "SELECT 'FILM' AS KIND, FILM_ID AS ID FROM FILM " +
+            "WHERE FILM_ID = ANY(?) UNION ALL SELECT 'USER', USER_ID FROM \"USER\" WHERE USER_ID = ANY(?);";
+    private static final String FIND_LIKES = "SELECT FILM_ID, USER_ID FROM FILM_LIKE;";
+    private static final String FIND_LIKES_PAGE = "SELECT USER_ID FROM FILM_LIKE WHERE FILM_ID = ? AND USER_ID > ? " +
+            "ORDER BY USER_ID LIMIT ?;";
+
     private final JdbcTemplate jdbcTemplate;
     private final UserStorage userStorage;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final Counter filmRows;
+    private final Counter genreRows;
+    private final Counter likeRows;
+    private final LikeMatrix likeMatrix = new LikeMatrix();
+    private final PopularityIndex popularityIndex = new PopularityIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final ResourceVersions versions = new ResourceVersions();
+    private final LikeWriteBehind likeWriteBehind;
 
     @Autowired
-    public FilmDb(JdbcTemplate jdbcTemplate,@Qualifier("userDb") UserStorage userStorage) {
+    public FilmDb(JdbcTemplate jdbcTemplate, @Qualifier("cachingUserStorage") UserStorage userStorage,
+                  GenreStorage genreStorage, MpaStorage mpaStorage, LikeWriteBehind likeWriteBehind,
+                  MeterRegistry meterRegistry) {
         this.jdbcTemplate = jdbcTemplate;
         this.userStorage = userStorage;
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+        this.likeWriteBehind = likeWriteBehind;
+        likeWriteBehind.useLikeState((filmId, userId) -> likeMatrix.contains(filmId.intValue(), userId.intValue()));
+        this.filmRows = meterRegistry.counter("filmorate.sql.rows", "table", "FILM");
+        this.genreRows = meterRegistry.counter("filmorate.sql.rows", "table", "FILM_GENRE");
+        this.likeRows = meterRegistry.counter("filmorate.sql.rows", "table", "FILM_LIKE");
+    }
+
+    @PostConstruct
+    public void loadIndexes() {
+        loadLikeMatrix();
+        loadPopularityIndex();
+        loadSearchIndex();
+        versions.reset();
+    }
+
+    private void loadLikeMatrix() {
+        int[][] likes = {new int[1024], new int[1024]};
+        int[] size = new int[1];
+        jdbcTemplate.query(FIND_LIKES, rs -> {
+            if (size[0] == likes[0].length) {
+                likes[0] = Arrays.copyOf(likes[0], size[0] * 2);
+                likes[1] = Arrays.copyOf(likes[1], size[0] * 2);
+            }
+            likes[0][size[0]] = rs.getInt("FILM_ID");
+            likes[1][size[0]] = rs.getInt("USER_ID");
+            size[0]++;
+        });
+        likeMatrix.load(likes[0], likes[1], size[0]);
+        log.info("Загружена матрица лайков: {} лайков", size[0]);
+    }
+
+    private void loadPopularityIndex() {
+        Map<Integer, List<Integer>> genres = new HashMap<>();
+        jdbcTemplate.query(FIND_GENRES, rs -> {
+            genres.computeIfAbsent(rs.getInt("FILM_ID"), id -> new ArrayList<>()).add(rs.getInt("GENRE_ID"));
+        });
+        popularityIndex.clear();
+        jdbcTemplate.query(FIND_POPULARITY, rs -> {
+            int filmId = rs.getInt("FILM_ID");
+            popularityIndex.put(filmId, rs.getDate("RELEASE_DATE").toLocalDate().getYear(), rs.getInt("LIKES_COUNT"),
+                    genres.getOrDefault(filmId, List.of()).stream().mapToInt(Integer::intValue).toArray());
+        });
+    }
+
+    private void loadSearchIndex() {
+        searchIndex.clear();
+        jdbcTemplate.query(FIND_TEXTS, rs -> {
+            searchIndex.put(rs.getInt("FILM_ID"), rs.getString("NAME"), rs.getString("DESCRIPTION"));
+        });
     }
 
     @Override
+    @Transactional
     public Film create(Film film) {
-        String sqlCreate = "INSERT INTO FILM (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID) " +
-                "VALUES (?, ?, ?, ?, ?);";
-        String queryForFilmGenre = "INSERT INTO FILM_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?);";
-
+        List<Genre> genres = resolveGenres(film);
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sqlCreate, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(INSERT_FILM, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, film.getName());
             ps.setString(2, film.getDescription());
             ps.setObject(3, java.sql.Date.valueOf(film.getReleaseDate()));
@@ -51,139 +157,452 @@ public class FilmDb implements FilmStorage {
         }, keyHolder);
 
         film.setId(keyHolder.getKey().longValue());
+        insertGenres(film.getId(), genres);
+        indexAfterCommit(film, genres);
+        return film;
+    }
+
+    @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        List<List<Genre>> genresOfFilms = new ArrayList<>(films.size());
+        for (Film film : films) {
+            genresOfFilms.add(resolveGenres(film));
+        }
 
-        if (!film.getGenres().isEmpty()) {
-            for (Genre genre : film.getGenres()) {
-                jdbcTemplate.update(queryForFilmGenre, film.getId(), genre.getId());
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_FILM, Statement.RETURN_GENERATED_KEYS)) {
+                for (Film film : films) {
+                    ps.setString(1, film.getName());
+                    ps.setString(2, film.getDescription());
+                    ps.setObject(3, java.sql.Date.valueOf(film.getReleaseDate()));
+                    ps.setInt(4, film.getDuration());
+                    ps.setInt(5, film.getMpa().getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Long> keys = new ArrayList<>(films.size());
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (rs.next()) {
+                        keys.add(rs.getLong(1));
+                    }
+                }
+                return keys;
             }
+        });
+        if (ids == null || ids.size() != films.size()) {
+            throw new IncorrectResultSizeDataAccessException("Получены не все ключи созданных фильмов",
+                    films.size(), ids == null ? 0 : ids.size());
         }
-        return film;
+
+        List<long[]> filmGenres = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            films.get(i).setId(ids.get(i));
+            indexAfterCommit(films.get(i), genresOfFilms.get(i));
+            for (Genre genre : genresOfFilms.get(i)) {
+                filmGenres.add(new long[] {ids.get(i), genre.getId()});
+            }
+        }
+        if (!filmGenres.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_GENRE, filmGenres, filmGenres.size(), (ps, filmGenre) -> {
+                ps.setInt(1, (int) filmGenre[0]);
+                ps.setInt(2, (int) filmGenre[1]);
+            });
+        }
+        return films;
     }
 
     @Override
+    @Transactional
     public Film update(Film film) {
-        if (!exists(film.getId())) {
+        List<Genre> genres = resolveGenres(film);
+        int rowsUpdated = jdbcTemplate.update(UPDATE_FILM, film.getName(), film.getDescription(),
+                film.getReleaseDate(), film.getMpa().getId(), film.getDuration(), film.getId());
+        if (rowsUpdated == 0) {
             log.warn("Фильм с id {} не найден", film.getId());
             throw new FilmNotFoundException("Фильм с таким id не найден!");
         }
 
-        String sqlQueryUpd = "UPDATE FILM SET NAME = ?, DESCRIPTION = ?, RELEASE_DATE = ?, RATING_ID = ?, DURATION = ?" +
-                " WHERE FILM_ID = ?;";
-        String queryToDeleteFilmGenres = "DELETE FROM FILM_GENRE WHERE FILM_ID = ?;";
-        String queryForUpdateGenre = "INSERT INTO FILM_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?);";
-        jdbcTemplate.update(sqlQueryUpd, film.getName(), film.getDescription(), film.getReleaseDate(),
-                film.getMpa().getId(), film.getDuration(), film.getId());
-        jdbcTemplate.update(queryToDeleteFilmGenres, film.getId());
-        if (!film.getGenres().isEmpty()) {
-            for (Genre genre : film.getGenres()) {
-                jdbcTemplate.update(queryForUpdateGenre, film.getId(), genre.getId());
-            }
-        }
-        film.getGenres().clear();
-        film.getGenres().addAll(getGenresOfFilm(film.getId()));
+        jdbcTemplate.update(DELETE_GENRES, film.getId());
+        insertGenres(film.getId(), genres);
+        int filmId = film.getId().intValue();
+        int year = film.getReleaseDate().getYear();
+        int[] genreIds = genreIds(genres);
+        String name = film.getName();
+        String description = film.getDescription();
+        film.setLikeCount(popularityIndex.likes(filmId));
+        TransactionCallbacks.afterCommit(() -> {
+            popularityIndex.update(filmId, year, genreIds);
+            searchIndex.put(filmId, name, description);
+            versions.touch(filmId);
+        });
         return film;
     }
 
     @Override
     public Map<Long, Film> getAll() {
         Map<Long, Film> films = new HashMap<>();
-        String sqlQuery = "SELECT * FROM FILM AS F JOIN RATING AS R ON F.RATING_ID = R.RATING_ID;";
-        List<Film> filmsFromDb = jdbcTemplate.query(sqlQuery, this::mapRowToFilm);
+        List<Film> filmsFromDb = jdbcTemplate.query(FIND_ALL, this::mapRowToFilm);
         for (Film film : filmsFromDb) {
             films.put(film.getId(), film);
         }
+        loadGenres(films, FIND_GENRES);
         return films;
     }
 
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return findFilms(FIND_PAGE, afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        long afterId = 0;
+        List<Film> page;
+        do {
+            page = getPage(afterId, STREAM_PAGE_SIZE);
+            for (Film film : page) {
+                consumer.accept(film);
+                afterId = film.getId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    @Override
     public boolean exists(Long id) {
-        String sqlQuery = "SELECT count(*) FROM FILM WHERE FILM_ID = ?;";
-        int count = jdbcTemplate.queryForObject(sqlQuery, new Object[] {id}, Integer.class);
-        return count > 0;
+        return !jdbcTemplate.queryForList(EXISTS, Integer.class, id).isEmpty();
     }
 
     @Override
     public Film get(Long id) {
-        String sqlQuery = "SELECT * FROM FILM AS F JOIN RATING AS R ON F.RATING_ID = R.RATING_ID " +
-                "WHERE FILM_ID = ?;";
+        List<Film> filmsFromDb = jdbcTemplate.query(FIND_BY_ID, this::mapRowToFilm, id);
 
-        SqlRowSet filmRows = jdbcTemplate.queryForRowSet(sqlQuery, id);
-
-        if (filmRows.next()) {
-            Film film = Film.builder()
-                    .id(filmRows.getLong("FILM_ID"))
-                    .name(filmRows.getString("NAME"))
-                    .description(filmRows.getString("DESCRIPTION"))
-                    .releaseDate(filmRows.getDate("RELEASE_DATE").toLocalDate())
-                    .duration(filmRows.getInt("DURATION"))
-                    .mpa(new Mpa(filmRows.getInt("RATING_ID"), filmRows.getString("RATING_NAME")))
-                    .build();
+        if (filmsFromDb.isEmpty()) {
+            log.warn("Фильм с id {} не найден", id);
+            throw new FilmNotFoundException("Фильм с таким id не найден!");
+        }
 
-            List<Genre> genresOfFilm = getGenresOfFilm(id);
-            List<Integer> likes = getLikesOfFilm(film.getId());
+        Film film = filmsFromDb.get(0);
+        Map<Long, Film> films = Map.of(film.getId(), film);
+        loadGenres(films, FIND_GENRES_BY_FILM, id);
 
-            film.getGenres().addAll(genresOfFilm);
-            film.getLikes().addAll(likes.stream().map(Long::valueOf).collect(Collectors.toList()));
+        log.info("Найден фильм с id {}", id);
+        return film;
+    }
 
-            log.info("Найден фильм с id {}", id);
-            return film;
+    @Override
+    public List<Film> getMostPopular(int count) {
+        if (likeWriteBehind.isEnabled()) {
+            return findFilmsByIds(popularityIndex.top(count, null, null));
         }
+        return findFilms(FIND_MOST_POPULAR, count);
+    }
 
-        log.warn("Фильм с id {} не найден", id);
-        throw new FilmNotFoundException("Фильм с таким id не найден!");
+    @Override
+    public List<Film> getMostPopular(int count, Integer genreId, Integer year) {
+        return findFilmsByIds(popularityIndex.top(count, genreId, year));
     }
 
     @Override
+    @Transactional
     public void addLike(Long filmId, Long userId) {
-        get(filmId);
-        User user = userStorage.getById(userId);
-        String sqlQuery = "INSERT INTO FILM_LIKE (FILM_ID, USER_ID) VALUES (?, ?);";
-        jdbcTemplate.update(sqlQuery, filmId, userId);
+        if (likeWriteBehind.isEnabled()) {
+            likeLater(filmId, userId, true);
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_LIKE, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            log.info("Пользователь {} уже поставил лайк фильму {}", userId, filmId);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            RuntimeException notFound = likeTargetNotFound(filmId, userId);
+            throw notFound != null ? notFound : e;
+        }
+        updateLikesCount(filmId, 1);
+        TransactionCallbacks.afterCommit(() -> {
+            likeMatrix.add(filmId.intValue(), userId.intValue());
+            popularityIndex.addLikes(filmId.intValue(), 1);
+            versions.touch(filmId);
+        });
     }
 
     @Override
+    @Transactional
+    public void addLikes(Collection<Like> likes) {
+        if (likes.isEmpty()) {
+            return;
+        }
+        Set<Long> filmIds = new LinkedHashSet<>();
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Like like : likes) {
+            filmIds.add(like.getFilmId());
+            userIds.add(like.getUserId());
+        }
+        validateLikeTargets(filmIds, userIds);
+        if (likeWriteBehind.isEnabled()) {
+            likeWriteBehind.reserve(likes.size());
+            likes.forEach(like -> applyLater(like.getFilmId(), like.getUserId(), true));
+            return;
+        }
+        List<Like> batch = new ArrayList<>(likes);
+        jdbcTemplate.batchUpdate(MERGE_LIKE, batch, batch.size(), (ps, like) -> {
+            ps.setLong(1, like.getFilmId());
+            ps.setLong(2, like.getUserId());
+        });
+        jdbcTemplate.update(RECOUNT_LIKES, (Object) filmIds.toArray(Long[]::new));
+        log.info("Добавлено {} лайков к {} фильмам", batch.size(), filmIds.size());
+        TransactionCallbacks.afterCommit(() -> {
+            for (Like like : batch) {
+                if (likeMatrix.add(like.getFilmId().intValue(), like.getUserId().intValue())) {
+                    popularityIndex.addLikes(like.getFilmId().intValue(), 1);
+                }
+            }
+            filmIds.forEach(versions::touch);
+        });
+    }
+
+    @Override
+    @Transactional
     public void deleteLike(Long filmId, Long userId) {
-        User user = userStorage.getById(userId);
-        String sqlQuery = "DELETE FROM FILM_LIKE WHERE FILM_ID = ? AND USER_ID = ?;";
-        jdbcTemplate.update(sqlQuery, filmId, userId);
+        if (likeWriteBehind.isEnabled()) {
+            likeLater(filmId, userId, false);
+            return;
+        }
+        if (jdbcTemplate.update(DELETE_LIKE, filmId, userId) > 0) {
+            updateLikesCount(filmId, -1);
+            TransactionCallbacks.afterCommit(() -> {
+                likeMatrix.remove(filmId.intValue(), userId.intValue());
+                popularityIndex.addLikes(filmId.intValue(), -1);
+                versions.touch(filmId);
+            });
+            return;
+        }
+        RuntimeException notFound = likeTargetNotFound(filmId, userId);
+        if (notFound != null) {
+            throw notFound;
+        }
+    }
+
+    @Override
+    public List<Long> getLikes(long filmId, long afterUserId, int limit) {
+        List<Long> users;
+        if (likeWriteBehind.isEnabled()) {
+            int[] likedBy = likeMatrix.usersWhoLiked((int) filmId, (int) Math.min(afterUserId, Integer.MAX_VALUE),
+                    limit);
+            users = new ArrayList<>(likedBy.length);
+            for (int user : likedBy) {
+                users.add((long) user);
+            }
+        } else {
+            users = jdbcTemplate.query(FIND_LIKES_PAGE, (rs, rowNum) -> {
+                likeRows.increment();
+                return rs.getLong("USER_ID");
+            }, filmId, Math.min(afterUserId, Integer.MAX_VALUE), limit);
+        }
+        if (users.isEmpty() && !exists(filmId)) {
+            log.warn("Фильм с id {} не найден", filmId);
+            throw new FilmNotFoundException("Фильм с таким id не найден!");
+        }
+        return users;
+    }
+
+    @Override
+    public boolean isLikedBy(long filmId, long userId) {
+        return likeMatrix.contains((int) filmId, (int) userId);
+    }
+
+    @Override
+    public List<Film> search(String query, boolean byTitle, boolean byDescription, int count) {
+        return findFilmsByIds(searchIndex.search(query, byTitle, byDescription, count, popularityIndex::likes));
+    }
+
+    @Override
+    public long getVersion() {
+        return versions.latest();
+    }
+
+    @Override
+    public long getVersion(Long id) {
+        return popularityIndex.contains(id.intValue()) ? versions.get(id) : 0;
+    }
+
+    @Override
+    public List<Film> getRecommendations(long userId, int count) {
+        if (!userStorage.exists(userId)) {
+            log.warn("Пользователь с id {} не найден", userId);
+            throw new UserNotFoundException("Пользователь не найден!");
+        }
+        return findFilmsByIds(likeMatrix.recommend((int) userId, count));
+    }
+
+    private void likeLater(Long filmId, Long userId, boolean liked) {
+        if (!userStorage.exists(userId)) {
+            log.warn("Пользователь с id {} не найден", userId);
+            throw new UserNotFoundException("Пользователь не найден!");
+        }
+        if (!popularityIndex.contains(filmId.intValue())) {
+            log.warn("Фильм с id {} не найден", filmId);
+            throw new FilmNotFoundException("Фильм с таким id не найден!");
+        }
+        likeWriteBehind.reserve(1);
+        applyLater(filmId, userId, liked);
+    }
+
+    private void applyLater(Long filmId, Long userId, boolean liked) {
+        boolean changed = false;
+        try {
+            changed = liked ? likeMatrix.add(filmId.intValue(), userId.intValue())
+                    : likeMatrix.remove(filmId.intValue(), userId.intValue());
+            if (changed) {
+                popularityIndex.addLikes(filmId.intValue(), liked ? 1 : -1);
+                versions.touch(filmId);
+            }
+        } finally {
+            if (changed) {
+                likeWriteBehind.enqueueReserved(filmId, userId, liked);
+            } else {
+                likeWriteBehind.release();
+            }
+        }
+    }
+
+    private void validateLikeTargets(Set<Long> filmIds, Set<Long> userIds) {
+        Set<Long> missingFilms = new LinkedHashSet<>(filmIds);
+        Set<Long> missingUsers = new LinkedHashSet<>(userIds);
+        jdbcTemplate.query(FIND_LIKE_TARGETS, rs -> {
+            Set<Long> missing = "FILM".equals(rs.getString("KIND")) ? missingFilms : missingUsers;
+            missing.remove(rs.getLong("ID"));
+        }, filmIds.toArray(Long[]::new), userIds.toArray(Long[]::new));
+        if (!missingUsers.isEmpty()) {
+            log.warn("Пользователи с id {} не найдены", missingUsers);
+            throw new UserNotFoundException("Пользователь не найден!");
+        }
+        if (!missingFilms.isEmpty()) {
+            log.warn("Фильмы с id {} не найдены", missingFilms);
+            throw new FilmNotFoundException("Фильм с таким id не найден!");
+        }
+    }
+
+    private RuntimeException likeTargetNotFound(Long filmId, Long userId) {
+        if (!userStorage.exists(userId)) {
+            log.warn("Пользователь с id {} не найден", userId);
+            return new UserNotFoundException("Пользователь не найден!");
+        }
+        if (!exists(filmId)) {
+            log.warn("Фильм с id {} не найден", filmId);
+            return new FilmNotFoundException("Фильм с таким id не найден!");
+        }
+        return null;
+    }
+
+    private void updateLikesCount(long filmId, int delta) {
+        jdbcTemplate.update(UPDATE_LIKES_COUNT, delta, filmId);
     }
 
     private Genre mapRowToGenre(ResultSet rs, int rowNum) throws SQLException {
-        return new Genre(rs.getInt("GENRE_ID"), rs.getString("GENRE_NAME"));
+        return genreStorage.findGenreById(rs.getInt("GENRE_ID"));
+    }
+
+    private List<Genre> resolveGenres(Film film) {
+        Map<Integer, Genre> genres = new TreeMap<>();
+        for (Genre genre : film.getGenres()) {
+            genres.put(genre.getId(), genreStorage.findGenreById(genre.getId()));
+        }
+        film.getGenres().clear();
+        film.getGenres().addAll(genres.values());
+        return new ArrayList<>(genres.values());
     }
 
-    private Integer mapRowToLike(ResultSet rs, int rowNum) throws SQLException {
-        return rs.getInt("USER_ID");
+    private void insertGenres(long filmId, List<Genre> genres) {
+        if (genres.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_GENRE, genres, genres.size(), (ps, genre) -> {
+            ps.setInt(1, (int) filmId);
+            ps.setInt(2, genre.getId());
+        });
     }
 
-    private List<Genre> getGenresOfFilm(long filmId) {
-        String queryForFilmGenres = "SELECT FG.FILM_ID, FG.GENRE_ID, G.GENRE_NAME FROM FILM_GENRE FG" +
-                " JOIN GENRE G ON G.GENRE_ID = FG.GENRE_ID WHERE FILM_ID = ?;";
-        return jdbcTemplate.query(queryForFilmGenres, this::mapRowToGenre, filmId);
+    private List<Film> findFilms(String sqlQuery, Object... args) {
+        Map<Long, Film> films = new LinkedHashMap<>();
+        for (Film film : jdbcTemplate.query(sqlQuery, this::mapRowToFilm, args)) {
+            films.put(film.getId(), film);
+        }
+        hydrate(films);
+        return new ArrayList<>(films.values());
     }
 
-    private List<Integer> getLikesOfFilm(long filmId) {
-        String queryForFilmLikes = "SELECT USER_ID FROM FILM_LIKE WHERE FILM_ID = ?;";
-        return jdbcTemplate.query(queryForFilmLikes, this::mapRowToLike, filmId);
+    private List<Film> findFilmsByIds(int[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        Map<Long, Film> films = new HashMap<>();
+        for (Film film : findFilms(FIND_BY_IDS, (Object) Arrays.stream(ids).boxed().toArray(Integer[]::new))) {
+            films.put(film.getId(), film);
+        }
+        List<Film> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Film film = films.get((long) id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    private void indexAfterCommit(Film film, List<Genre> genres) {
+        int filmId = film.getId().intValue();
+        int year = film.getReleaseDate().getYear();
+        int[] genreIds = genreIds(genres);
+        String name = film.getName();
+        String description = film.getDescription();
+        TransactionCallbacks.afterCommit(() -> {
+            popularityIndex.put(filmId, year, 0, genreIds);
+            searchIndex.put(filmId, name, description);
+            versions.touch(filmId);
+        });
+    }
+
+    private static int[] genreIds(List<Genre> genres) {
+        return genres.stream().mapToInt(Genre::getId).toArray();
+    }
+
+    private void hydrate(Map<Long, Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Integer[] ids = films.keySet().stream().map(Long::intValue).toArray(Integer[]::new);
+        loadGenres(films, FIND_GENRES_BY_FILMS, (Object) ids);
+    }
+
+    private void loadGenres(Map<Long, Film> films, String sqlQuery, Object... args) {
+        if (films.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(sqlQuery, rs -> {
+            genreRows.increment();
+            Film film = films.get(rs.getLong("FILM_ID"));
+            if (film != null) {
+                film.getGenres().add(mapRowToGenre(rs, rs.getRow()));
+            }
+        }, args);
     }
 
     private Film mapRowToFilm(ResultSet rs, int rowNum) throws SQLException {
-        Film film = Film.builder()
+        filmRows.increment();
+        return Film.builder()
                 .id(rs.getLong("FILM_ID"))
                 .name(rs.getString("NAME"))
                 .description(rs.getString("DESCRIPTION"))
                 .releaseDate(rs.getDate("RELEASE_DATE").toLocalDate())
                 .duration(rs.getInt("DURATION"))
-                .mpa(new Mpa(rs.getInt("RATING_ID"), rs.getString("RATING_NAME")))
+                .mpa(mpaStorage.findMpaById(rs.getInt("RATING_ID")))
+                .likeCount(likeWriteBehind.isEnabled() ? popularityIndex.likes(rs.getInt("FILM_ID"))
+                        : rs.getInt("LIKES_COUNT"))
                 .build();
-        List<Genre> genresOfFilm = getGenresOfFilm(film.getId());
-        List<Integer> likes = getLikesOfFilm(film.getId());
-        for (Genre genre : genresOfFilm) {
-            film.getGenres().add(genre);
-        }
-        for (Integer like : likes) {
-            film.getLikes().add(Long.valueOf(like));
-        }
-
-        return film;
     }
 }
\ No newline at end of file
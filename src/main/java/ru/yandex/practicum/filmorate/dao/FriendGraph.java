@@ -0,0 +1,213 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class FriendGraph {
+    private static final int[] NO_FRIENDS = new int[0];
+    private static final int MIN_COMPACTION_THRESHOLD = 1024;
+    private static final int GALLOPING_RATIO = 16;
+    private static final Slice NO_SLICE = new Slice(NO_FRIENDS, 0, 0);
+
+    private final ConcurrentMap<Integer, int[]> overrides = new ConcurrentHashMap<>();
+    private final IdCounterPool candidates = new IdCounterPool(Runtime.getRuntime().availableProcessors());
+    private volatile Csr csr = new Csr(new int[1], NO_FRIENDS);
+    private volatile int capacity;
+
+    public synchronized void load(int[] users, int[] friends, int edges) {
+        int maxId = 0;
+        for (int i = 0; i < edges; i++) {
+            maxId = Math.max(maxId, Math.max(users[i], friends[i]));
+        }
+        int[] offsets = new int[maxId + 2];
+        for (int i = 0; i < edges; i++) {
+            offsets[users[i] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] targets = new int[edges];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < edges; i++) {
+            targets[next[users[i]]++] = friends[i];
+        }
+        for (int user = 0; user <= maxId; user++) {
+            Arrays.sort(targets, offsets[user], offsets[user + 1]);
+        }
+        csr = new Csr(offsets, targets);
+        overrides.clear();
+        capacity = maxId + 1;
+    }
+
+    public int[] friendsOf(int user) {
+        Slice friends = slice(user);
+        return friends.size() == 0 ? NO_FRIENDS : Arrays.copyOfRange(friends.ids, friends.from, friends.to);
+    }
+
+    private Slice slice(int user) {
+        int[] friends = overrides.get(user);
+        if (friends != null) {
+            return new Slice(friends, 0, friends.length);
+        }
+        Csr current = csr;
+        if (user < 0 || user >= current.offsets.length - 1) {
+            return NO_SLICE;
+        }
+        return new Slice(current.targets, current.offsets[user], current.offsets[user + 1]);
+    }
+
+    public synchronized void add(int user, int friend) {
+        int[] friends = friendsOf(user);
+        int position = Arrays.binarySearch(friends, friend);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        int[] updated = new int[friends.length + 1];
+        System.arraycopy(friends, 0, updated, 0, insertAt);
+        updated[insertAt] = friend;
+        System.arraycopy(friends, insertAt, updated, insertAt + 1, friends.length - insertAt);
+        overrides.put(user, updated);
+        capacity = Math.max(capacity, Math.max(user, friend) + 1);
+        compactIfNeeded();
+    }
+
+    public synchronized void remove(int user, int friend) {
+        int[] friends = friendsOf(user);
+        int position = Arrays.binarySearch(friends, friend);
+        if (position < 0) {
+            return;
+        }
+        int[] updated = new int[friends.length - 1];
+        System.arraycopy(friends, 0, updated, 0, position);
+        System.arraycopy(friends, position + 1, updated, position, friends.length - position - 1);
+        overrides.put(user, updated);
+        compactIfNeeded();
+    }
+
+    public int[] mutualFriends(int user, int otherUser) {
+        Slice friends = slice(user);
+        Slice otherFriends = slice(otherUser);
+        int[] mutual = new int[Math.min(friends.size(), otherFriends.size())];
+        return Arrays.copyOf(mutual, intersect(friends, otherFriends, mutual));
+    }
+
+    public int mutualFriendsCount(int user, int otherUser) {
+        return intersect(slice(user), slice(otherUser), null);
+    }
+
+    public int[] recommend(int user, int limit) {
+        Slice friends = slice(user);
+        IdCounter counter = candidates.acquire(capacity);
+        try {
+            for (int i = friends.from; i < friends.to; i++) {
+                Slice friendsOfFriend = slice(friends.ids[i]);
+                counter.addAll(friendsOfFriend.ids, friendsOfFriend.from, friendsOfFriend.to, 1, user);
+            }
+            for (int i = friends.from; i < friends.to; i++) {
+                counter.clear(friends.ids[i]);
+            }
+            return counter.top(limit);
+        } finally {
+            candidates.release(counter);
+        }
+    }
+
+    private static int intersect(Slice first, Slice second, int[] out) {
+        Slice small = first.size() <= second.size() ? first : second;
+        Slice large = small == first ? second : first;
+        if (small.size() == 0) {
+            return 0;
+        }
+        int[] largeIds = large.ids;
+        int count = 0;
+        if (large.size() / small.size() >= GALLOPING_RATIO) {
+            int from = large.from;
+            for (int k = small.from; k < small.to; k++) {
+                int value = small.ids[k];
+                int bound = 1;
+                while (from + bound < large.to && largeIds[from + bound] < value) {
+                    bound <<= 1;
+                }
+                int position = Arrays.binarySearch(largeIds, from, Math.min(from + bound + 1, large.to), value);
+                if (position >= 0) {
+                    if (out != null) {
+                        out[count] = value;
+                    }
+                    count++;
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+                if (from >= large.to) {
+                    break;
+                }
+            }
+            return count;
+        }
+        int[] smallIds = small.ids;
+        int i = small.from;
+        int j = large.from;
+        while (i < small.to && j < large.to) {
+            if (smallIds[i] < largeIds[j]) {
+                i++;
+            } else if (smallIds[i] > largeIds[j]) {
+                j++;
+            } else {
+                if (out != null) {
+                    out[count] = smallIds[i];
+                }
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private void compactIfNeeded() {
+        Csr current = csr;
+        if (overrides.size() <= Math.max(MIN_COMPACTION_THRESHOLD, (current.offsets.length - 1) / 16)) {
+            return;
+        }
+        int users = Math.max(capacity, current.offsets.length - 1);
+        int[] offsets = new int[users + 1];
+        for (int user = 0; user < users; user++) {
+            offsets[user + 1] = offsets[user] + friendsOf(user).length;
+        }
+        int[] targets = new int[offsets[users]];
+        for (int user = 0; user < users; user++) {
+            int[] friends = friendsOf(user);
+            System.arraycopy(friends, 0, targets, offsets[user], friends.length);
+        }
+        csr = new Csr(offsets, targets);
+        overrides.clear();
+    }
+
+    private static final class Slice {
+        private final int[] ids;
+        private final int from;
+        private final int to;
+
+        private Slice(int[] ids, int from, int to) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        private int size() {
+            return to - from;
+        }
+    }
+
+    private static final class Csr {
+        private final int[] offsets;
+        private final int[] targets;
+
+        private Csr(int[] offsets, int[] targets) {
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exceptions.GenreNotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+
+import javax.annotation.PostConstruct;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
@@ -16,29 +19,47 @@ import java.util.List;
 public class GenreDb implements GenreStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final Counter cacheHits;
+    private final Counter cacheNotFound;
+    private volatile IdIndexedSnapshot<Genre> genres;
+    private volatile long version;
 
-    public GenreDb(JdbcTemplate jdbcTemplate) {
+    public GenreDb(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
         this.jdbcTemplate = jdbcTemplate;
+        this.cacheHits = meterRegistry.counter("filmorate.cache.requests", "cache", "genres", "result", "hit");
+        this.cacheNotFound = meterRegistry.counter("filmorate.cache.requests", "cache", "genres", "result",
+                "not_found");
+    }
+
+    @PostConstruct
+    @Override
+    public void refresh() {
+        String sqlQuery = "SELECT * FROM GENRE ORDER BY GENRE_ID;";
+        genres = new IdIndexedSnapshot<>(jdbcTemplate.query(sqlQuery, this::mapRowToGenre), Genre::getId);
+        version = Math.max(System.currentTimeMillis(), version + 1);
+        log.info("Загружено жанров: {}", genres.getAll().size());
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
     }
 
     @Override
     public List<Genre> getAllGenres() {
-        String sqlQuery = "SELECT * FROM GENRE;";
-        return jdbcTemplate.query(sqlQuery, this::mapRowToGenre);
+        return genres.getAll();
     }
 
     @Override
     public Genre findGenreById(Integer id) throws GenreNotFoundException {
-        String sqlQuery = "SELECT * FROM GENRE WHERE GENRE_ID = ?";
-        SqlRowSet genreRows = jdbcTemplate.queryForRowSet(sqlQuery, id);
-        if (genreRows.next()) {
-            Genre genre = new Genre(genreRows.getInt("GENRE_ID"),
-                    genreRows.getString("GENRE_NAME"));
-            log.info("Найден жанр с id {}", id);
-            return genre;
+        Genre genre = genres.get(id);
+        if (genre == null) {
+            cacheNotFound.increment();
+            log.warn("Жанр с id {} не найден", id);
+            throw new GenreNotFoundException("Жанр с id " + id + " не найден");
         }
-        log.warn("Жанр с id {} не найден", id);
-        throw new GenreNotFoundException("Жанр с id " + id + " не найден");
+        cacheHits.increment();
+        return genre;
     }
 
     private Genre mapRowToGenre(ResultSet rs, int rowNum) throws SQLException {
@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+final class IdCounter {
+    private int[] counts = new int[0];
+    private int[] touched = new int[16];
+    private int touchedSize;
+
+    void ensureCapacity(int size) {
+        if (counts.length < size) {
+            counts = new int[size];
+        }
+    }
+
+    void addAll(int[] ids, int from, int to, int delta, int excluded) {
+        int[] localCounts = counts;
+        int[] localTouched = touched;
+        int size = touchedSize;
+        for (int i = from; i < to; i++) {
+            int id = ids[i];
+            if (id == excluded || id >= localCounts.length) {
+                continue;
+            }
+            int count = localCounts[id];
+            localCounts[id] = count + delta;
+            if (count == 0) {
+                if (size == localTouched.length) {
+                    localTouched = Arrays.copyOf(localTouched, size * 2);
+                }
+                localTouched[size++] = id;
+            }
+        }
+        touched = localTouched;
+        touchedSize = size;
+    }
+
+    void merge(IdCounter other) {
+        for (int i = 0; i < other.touchedSize; i++) {
+            int id = other.touched[i];
+            int count = other.counts[id];
+            if (count != 0 && id < counts.length) {
+                if (counts[id] == 0) {
+                    if (touchedSize == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedSize * 2);
+                    }
+                    touched[touchedSize++] = id;
+                }
+                counts[id] += count;
+            }
+        }
+    }
+
+    int get(int id) {
+        return id < counts.length ? counts[id] : 0;
+    }
+
+    void clear(int id) {
+        if (id < counts.length) {
+            counts[id] = 0;
+        }
+    }
+
+    int[] top(int limit) {
+        PriorityQueue<Long> best = new PriorityQueue<>(Math.min(limit, touchedSize) + 1);
+        for (int i = 0; i < touchedSize; i++) {
+            int id = touched[i];
+            int count = counts[id];
+            if (count == 0) {
+                continue;
+            }
+            long rank = ((long) count << 32) | (Integer.MAX_VALUE - id);
+            if (best.size() < limit) {
+                best.add(rank);
+            } else if (best.peek() < rank) {
+                best.poll();
+                best.add(rank);
+            }
+        }
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = Integer.MAX_VALUE - (int) (best.poll() & 0xFFFFFFFFL);
+        }
+        return result;
+    }
+
+    void reset() {
+        for (int i = 0; i < touchedSize; i++) {
+            counts[touched[i]] = 0;
+        }
+        touchedSize = 0;
+        if (touched.length > 1 << 16) {
+            touched = new int[16];
+        }
+    }
+}
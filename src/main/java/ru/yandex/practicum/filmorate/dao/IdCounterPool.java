@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class IdCounterPool {
+    private final ConcurrentLinkedQueue<IdCounter> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleSize = new AtomicInteger();
+    private final int maxIdle;
+
+    IdCounterPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    IdCounter acquire(int capacity) {
+        IdCounter counter = idle.poll();
+        if (counter == null) {
+            counter = new IdCounter();
+        } else {
+            idleSize.decrementAndGet();
+        }
+        counter.ensureCapacity(capacity);
+        return counter;
+    }
+
+    void release(IdCounter counter) {
+        counter.reset();
+        if (idleSize.incrementAndGet() <= maxIdle) {
+            idle.offer(counter);
+        } else {
+            idleSize.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+final class IdIndexedSnapshot<T> {
+    private final Object[] itemsById;
+    private final List<T> items;
+
+    IdIndexedSnapshot(List<T> items, ToIntFunction<T> idOf) {
+        int maxId = items.stream().mapToInt(idOf).max().orElse(0);
+        this.itemsById = new Object[maxId + 1];
+        for (T item : items) {
+            itemsById[idOf.applyAsInt(item)] = item;
+        }
+        this.items = List.copyOf(items);
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(Integer id) {
+        if (id == null || id < 0 || id >= itemsById.length) {
+            return null;
+        }
+        return (T) itemsById[id];
+    }
+
+    List<T> getAll() {
+        return items;
+    }
+}
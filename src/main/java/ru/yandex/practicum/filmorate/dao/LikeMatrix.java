@@ -0,0 +1,239 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class LikeMatrix {
+    private static final int[] NO_LIKES = new int[0];
+    private static final int NEIGHBOURS = 50;
+    private static final int PARALLEL_THRESHOLD = 200_000;
+
+    private final ConcurrentMap<Integer, Row> filmsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Row> usersByFilm = new ConcurrentHashMap<>();
+    private final AtomicInteger capacity = new AtomicInteger();
+    private final int parallelism;
+    private final IdCounterPool counters;
+
+    public LikeMatrix() {
+        this(ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    public LikeMatrix(int parallelism) {
+        this.parallelism = parallelism;
+        this.counters = new IdCounterPool(parallelism + Runtime.getRuntime().availableProcessors());
+    }
+
+    public synchronized void load(int[] films, int[] users, int likes) {
+        filmsByUser.clear();
+        usersByFilm.clear();
+        fillRows(filmsByUser, users, films, likes);
+        fillRows(usersByFilm, films, users, likes);
+        int maxId = 0;
+        for (int i = 0; i < likes; i++) {
+            maxId = Math.max(maxId, Math.max(films[i], users[i]));
+        }
+        capacity.set(maxId + 1);
+    }
+
+    public int[] filmsLikedBy(int user) {
+        Row films = filmsByUser.get(user);
+        return films == null ? NO_LIKES : films.toArray();
+    }
+
+    public int[] usersWhoLiked(int film, int afterUser, int limit) {
+        Row users = usersByFilm.get(film);
+        return users == null ? NO_LIKES : users.page(afterUser, limit);
+    }
+
+    public boolean contains(int film, int user) {
+        Row films = filmsByUser.get(user);
+        return films != null && films.contains(film);
+    }
+
+    public boolean add(int film, int user) {
+        Row films = filmsByUser.computeIfAbsent(user, id -> new Row());
+        synchronized (films) {
+            if (!films.add(film)) {
+                return false;
+            }
+            usersByFilm.computeIfAbsent(film, id -> new Row()).add(user);
+        }
+        capacity.accumulateAndGet(Math.max(film, user) + 1, Math::max);
+        return true;
+    }
+
+    public boolean remove(int film, int user) {
+        Row films = filmsByUser.get(user);
+        if (films == null) {
+            return false;
+        }
+        synchronized (films) {
+            if (!films.remove(film)) {
+                return false;
+            }
+            usersByFilm.get(film).remove(user);
+        }
+        return true;
+    }
+
+    public int[] recommend(int user, int limit) {
+        int[] liked = filmsLikedBy(user);
+        if (liked.length == 0) {
+            return NO_LIKES;
+        }
+        IdCounter counter = counters.acquire(capacity.get());
+        try {
+            countOverlaps(counter, liked, user);
+            int[] neighbours = counter.top(NEIGHBOURS);
+            int[] overlaps = new int[neighbours.length];
+            for (int i = 0; i < neighbours.length; i++) {
+                overlaps[i] = counter.get(neighbours[i]);
+            }
+            counter.reset();
+
+            for (int i = 0; i < neighbours.length; i++) {
+                Row films = filmsByUser.get(neighbours[i]);
+                if (films != null) {
+                    films.countInto(counter, overlaps[i], -1);
+                }
+            }
+            for (int film : liked) {
+                counter.clear(film);
+            }
+            return counter.top(limit);
+        } finally {
+            counters.release(counter);
+        }
+    }
+
+    private void countOverlaps(IdCounter counter, int[] liked, int user) {
+        Row[] rows = new Row[liked.length];
+        long postings = 0;
+        for (int i = 0; i < liked.length; i++) {
+            rows[i] = usersByFilm.get(liked[i]);
+            postings += rows[i] == null ? 0 : rows[i].size();
+        }
+        if (postings < PARALLEL_THRESHOLD || parallelism < 2) {
+            for (Row users : rows) {
+                if (users != null) {
+                    users.countInto(counter, 1, user);
+                }
+            }
+            return;
+        }
+        int size = capacity.get();
+        List<IdCounter> counted = IntStream.range(0, parallelism).parallel()
+                .mapToObj(part -> {
+                    IdCounter partial = counters.acquire(size);
+                    for (int i = part; i < rows.length; i += parallelism) {
+                        if (rows[i] != null) {
+                            rows[i].countInto(partial, 1, user);
+                        }
+                    }
+                    return partial;
+                })
+                .collect(Collectors.toList());
+        for (IdCounter partial : counted) {
+            counter.merge(partial);
+            counters.release(partial);
+        }
+    }
+
+    private static void fillRows(ConcurrentMap<Integer, Row> rows, int[] keys, int[] values, int size) {
+        int maxKey = 0;
+        for (int i = 0; i < size; i++) {
+            maxKey = Math.max(maxKey, keys[i]);
+        }
+        int[] offsets = new int[maxKey + 2];
+        for (int i = 0; i < size; i++) {
+            offsets[keys[i] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] sorted = new int[size];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < size; i++) {
+            sorted[next[keys[i]]++] = values[i];
+        }
+        for (int key = 0; key <= maxKey; key++) {
+            if (offsets[key] < offsets[key + 1]) {
+                int[] row = Arrays.copyOfRange(sorted, offsets[key], offsets[key + 1]);
+                Arrays.sort(row);
+                rows.put(key, new Row(row));
+            }
+        }
+    }
+
+    private static final class Row {
+        private static final int MIN_LENGTH = 4;
+
+        private int[] ids;
+        private int size;
+
+        private Row() {
+            this(NO_LIKES);
+        }
+
+        private Row(int[] ids) {
+            this.ids = ids;
+            this.size = ids.length;
+        }
+
+        synchronized boolean add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(MIN_LENGTH, size + (size >> 1)));
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+            return true;
+        }
+
+        synchronized boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            if (ids.length > MIN_LENGTH && size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+            return true;
+        }
+
+        synchronized boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        synchronized int[] page(int after, int limit) {
+            int from = Arrays.binarySearch(ids, 0, size, after);
+            from = from >= 0 ? from + 1 : -from - 1;
+            return Arrays.copyOfRange(ids, from, from + Math.min(limit, size - from));
+        }
+
+        synchronized void countInto(IdCounter counter, int delta, int excluded) {
+            counter.addAll(ids, 0, size, delta, excluded);
+        }
+    }
+}
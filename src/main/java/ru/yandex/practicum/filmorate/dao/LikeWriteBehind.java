@@ -0,0 +1,215 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class LikeWriteBehind {
+    private static final String INSERT_LIKE = "MERGE INTO FILM_LIKE (FILM_ID, USER_ID) KEY (FILM_ID, USER_ID) " +
+            "VALUES (?, ?);";
+    private static final String DELETE_LIKE = "DELETE FROM FILM_LIKE WHERE FILM_ID = ? AND USER_ID = ?;";
+    private static final String UPDATE_LIKES_COUNT = "UPDATE FILM SET LIKES_COUNT = " +
+            "(SELECT COUNT(*) FROM FILM_LIKE AS FL WHERE FL.FILM_ID = ?) WHERE FILM_ID = ?;";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int maxRetries;
+    private final long enqueueTimeoutMillis;
+    private final BlockingQueue<long[]> queue;
+    private final Semaphore slots;
+    private final List<long[]> retry = new ArrayList<>();
+    private int attempts;
+    private final Counter writtenLikes;
+    private final Counter retriedLikes;
+    private final Counter failedLikes;
+    private final Counter rejectedLikes;
+    private volatile BiPredicate<Long, Long> likeState;
+    private ScheduledExecutorService writer;
+
+    public LikeWriteBehind(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.queue-capacity:10000}") int queueCapacity,
+                           @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                           @Value("${filmorate.likes.write-behind.flush-interval-ms:100}") long flushIntervalMillis,
+                           @Value("${filmorate.likes.write-behind.max-retries:3}") int maxRetries,
+                           @Value("${filmorate.likes.write-behind.enqueue-timeout-ms:1000}") long enqueueTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxRetries = maxRetries;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.slots = new Semaphore(queueCapacity);
+        this.writtenLikes = meterRegistry.counter("filmorate.likes.write_behind", "result", "written");
+        this.retriedLikes = meterRegistry.counter("filmorate.likes.write_behind", "result", "retried");
+        this.failedLikes = meterRegistry.counter("filmorate.likes.write_behind", "result", "failed");
+        this.rejectedLikes = meterRegistry.counter("filmorate.likes.write_behind", "result", "rejected");
+        meterRegistry.gauge("filmorate.likes.write_behind.queue", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена: очередь {}, пакет {}, интервал {} мс",
+                queue.remainingCapacity(), batchSize, flushIntervalMillis);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void useLikeState(BiPredicate<Long, Long> likeState) {
+        this.likeState = likeState;
+    }
+
+    public void reserve(int events) {
+        boolean reserved;
+        try {
+            reserved = slots.tryAcquire(events, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reserved = false;
+        }
+        if (!reserved) {
+            rejectedLikes.increment(events);
+            log.warn("Очередь отложенной записи лайков заполнена");
+            throw new RejectedExecutionException("Очередь отложенной записи лайков переполнена");
+        }
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    public void enqueueReserved(long filmId, long userId, boolean liked) {
+        queue.add(new long[] {filmId, userId, liked ? 1 : 0});
+    }
+
+    public void enqueue(long filmId, long userId, boolean liked) {
+        reserve(1);
+        enqueueReserved(filmId, userId, liked);
+    }
+
+    public synchronized void flush() {
+        while (!retry.isEmpty() || !queue.isEmpty()) {
+            List<long[]> events = new ArrayList<>(retry);
+            retry.clear();
+            queue.drainTo(events, Math.max(0, batchSize - events.size()));
+            if (!write(events)) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        writer.awaitTermination(10, TimeUnit.SECONDS);
+        while (!retry.isEmpty() || !queue.isEmpty()) {
+            flush();
+        }
+        log.info("Очередь отложенной записи лайков сброшена при остановке");
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка фоновой записи лайков", e);
+        }
+    }
+
+    private boolean write(List<long[]> events) {
+        BiPredicate<Long, Long> state = likeState;
+        Map<Long, Boolean> latest = new LinkedHashMap<>();
+        Set<Integer> films = new TreeSet<>();
+        for (long[] event : events) {
+            latest.put(event[0] << 32 | event[1], state == null ? event[2] == 1 : state.test(event[0], event[1]));
+            films.add((int) event[0]);
+        }
+        List<int[]> likes = new ArrayList<>();
+        List<int[]> unlikes = new ArrayList<>();
+        latest.forEach((key, liked) -> (liked ? likes : unlikes).add(new int[] {(int) (key >>> 32), key.intValue()}));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batchUpdate(INSERT_LIKE, likes);
+                batchUpdate(DELETE_LIKE, unlikes);
+                jdbcTemplate.batchUpdate(UPDATE_LIKES_COUNT, films, films.size(), (ps, film) -> {
+                    ps.setInt(1, film);
+                    ps.setInt(2, film);
+                });
+            });
+            writtenLikes.increment(latest.size());
+            attempts = 0;
+            slots.release(events.size());
+            return true;
+        } catch (RuntimeException e) {
+            if (++attempts <= maxRetries) {
+                retriedLikes.increment(latest.size());
+                log.warn("Не удалось записать {} лайков, попытка {} из {}: {}", latest.size(), attempts,
+                        maxRetries + 1, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                retry.addAll(events);
+                return false;
+            }
+            attempts = 0;
+            slots.release(events.size());
+            failedLikes.increment(latest.size());
+            log.error("Не удалось записать {} лайков, пакет отброшен: {}", latest.size(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            return true;
+        }
+    }
+
+    private void batchUpdate(String sqlQuery, List<int[]> likes) {
+        if (likes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sqlQuery, likes, likes.size(), (ps, like) -> {
+            ps.setInt(1, like[0]);
+            ps.setInt(2, like[1]);
+        });
+    }
+}
@@ -1,12 +1,15 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exceptions.MpaNotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import javax.annotation.PostConstruct;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
@@ -16,31 +19,50 @@ import java.util.List;
 public class MpaDb implements MpaStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final Counter cacheHits;
+    private final Counter cacheNotFound;
+    private volatile IdIndexedSnapshot<Mpa> ratings;
+    private volatile long version;
 
-    public MpaDb(JdbcTemplate jdbcTemplate) {
+    public MpaDb(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
         this.jdbcTemplate = jdbcTemplate;
+        this.cacheHits = meterRegistry.counter("filmorate.cache.requests", "cache", "ratings", "result", "hit");
+        this.cacheNotFound = meterRegistry.counter("filmorate.cache.requests", "cache", "ratings", "result",
+                "not_found");
+    }
+
+    @PostConstruct
+    @Override
+    public void refresh() {
+        String sqlQuery = "SELECT * FROM RATING ORDER BY RATING_ID;";
+        ratings = new IdIndexedSnapshot<>(jdbcTemplate.query(sqlQuery, this::mapRowToMpa), Mpa::getId);
+        version = Math.max(System.currentTimeMillis(), version + 1);
+        log.info("Загружено рейтингов: {}", ratings.getAll().size());
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
     }
 
     @Override
     public List<Mpa> getAllMpa() {
-        String sqlQuery = "SELECT * FROM RATING;";
-        return jdbcTemplate.query(sqlQuery, this::mapRowToMpa);
+        return ratings.getAll();
     }
 
     @Override
     public Mpa findMpaById(Integer id) throws MpaNotFoundException {
-        String sqlQuery = "SELECT * FROM RATING WHERE RATING_ID = ?";
-        SqlRowSet mpaRows = jdbcTemplate.queryForRowSet(sqlQuery, id);
-        if (mpaRows.next()) {
-            Mpa mpa = new Mpa(mpaRows.getInt("RATING_ID"), mpaRows.getString("RATING_NAME"));
-            log.info("Найден рейтинг с id {}", id);
-            return mpa;
+        Mpa mpa = ratings.get(id);
+        if (mpa == null) {
+            cacheNotFound.increment();
+            log.warn("Рейтинг с id {} не найден", id);
+            throw new MpaNotFoundException("Рейтинг с id " + id + " не найден");
         }
-        log.warn("Рейтинг с id {} не найден", id);
-        throw new MpaNotFoundException("Рейтинг с id " + id + " не найден");
+        cacheHits.increment();
+        return mpa;
     }
 
     private Mpa mapRowToMpa(ResultSet rs, int rowNum) throws SQLException {
         return new Mpa(rs.getInt("RATING_ID"), rs.getString("RATING_NAME"));
     }
-}
\ No newline at end of file
+}
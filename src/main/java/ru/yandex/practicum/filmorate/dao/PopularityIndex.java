@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.StampedLock;
+
+public class PopularityIndex {
+    private final ConcurrentMap<Integer, Entry> films = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> all = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<Integer, NavigableSet<Long>> byGenre = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, NavigableSet<Long>> byYear = new ConcurrentHashMap<>();
+    private final StampedLock lock = new StampedLock();
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            films.clear();
+            all.clear();
+            byGenre.clear();
+            byYear.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void put(int film, int year, int likes, int[] genres) {
+        Entry entry = new Entry(likes, year, sorted(genres));
+        long stamp = lock.writeLock();
+        try {
+            replace(film, entry);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void update(int film, int year, int[] genres) {
+        int[] sortedGenres = sorted(genres);
+        long stamp = lock.writeLock();
+        try {
+            Entry old = films.get(film);
+            replace(film, new Entry(old == null ? 0 : old.likes, year, sortedGenres));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void addLikes(int film, int delta) {
+        long stamp = lock.writeLock();
+        try {
+            Entry old = films.get(film);
+            if (old != null) {
+                replace(film, new Entry(Math.max(0, old.likes + delta), old.year, old.genres));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean contains(int film) {
+        return films.containsKey(film);
+    }
+
+    public int likes(int film) {
+        Entry entry = films.get(film);
+        return entry == null ? 0 : entry.likes;
+    }
+
+    public int[] top(int count, Integer genreId, Integer year) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            int[] result = collect(count, genreId, year);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return collect(count, genreId, year);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int[] collect(int count, Integer genreId, Integer year) {
+        NavigableSet<Long> genreBucket = genreId == null ? null : bucket(byGenre, genreId);
+        NavigableSet<Long> yearBucket = year == null ? null : bucket(byYear, year);
+        NavigableSet<Long> bucket = genreBucket == null ? yearBucket : genreBucket;
+        if (genreBucket != null && yearBucket != null && yearBucket.size() < genreBucket.size()) {
+            bucket = yearBucket;
+        }
+        if (bucket == null) {
+            bucket = all;
+        }
+
+        int[] result = new int[Math.min(count, films.size())];
+        int size = 0;
+        Iterator<Long> ranks = bucket.iterator();
+        while (size < result.length && ranks.hasNext()) {
+            int film = (int) (ranks.next() & 0xFFFFFFFFL);
+            Entry entry = films.get(film);
+            if (entry == null
+                    || genreId != null && Arrays.binarySearch(entry.genres, genreId) < 0
+                    || year != null && entry.year != year) {
+                continue;
+            }
+            result[size++] = film;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void replace(int film, Entry entry) {
+        Entry old = films.put(film, entry);
+        if (old != null) {
+            long rank = rank(film, old.likes);
+            for (int genre : old.genres) {
+                bucket(byGenre, genre).remove(rank);
+            }
+            bucket(byYear, old.year).remove(rank);
+            all.remove(rank);
+        }
+        long rank = rank(film, entry.likes);
+        all.add(rank);
+        for (int genre : entry.genres) {
+            byGenre.computeIfAbsent(genre, id -> new ConcurrentSkipListSet<>()).add(rank);
+        }
+        byYear.computeIfAbsent(entry.year, id -> new ConcurrentSkipListSet<>()).add(rank);
+    }
+
+    private static NavigableSet<Long> bucket(ConcurrentMap<Integer, NavigableSet<Long>> buckets, int key) {
+        return buckets.getOrDefault(key, Collections.emptyNavigableSet());
+    }
+
+    private static long rank(int film, int likes) {
+        return ((long) (Integer.MAX_VALUE - likes) << 32) | film;
+    }
+
+    private static int[] sorted(int[] genres) {
+        int[] copy = genres.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static final class Entry {
+        private final int likes;
+        private final int year;
+        private final int[] genres;
+
+        private Entry(int likes, int year, int[] genres) {
+            this.likes = likes;
+            this.year = year;
+            this.genres = genres;
+        }
+    }
+}
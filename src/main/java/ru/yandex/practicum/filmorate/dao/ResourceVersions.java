@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResourceVersions {
+    private final ConcurrentMap<Long, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong latest = new AtomicLong();
+    private volatile long base;
+
+    public ResourceVersions() {
+        reset();
+    }
+
+    public void reset() {
+        base = next();
+        versions.clear();
+    }
+
+    public void touch(long id) {
+        versions.merge(id, next(), Math::max);
+    }
+
+    public long get(long id) {
+        return versions.getOrDefault(id, base);
+    }
+
+    public long latest() {
+        return latest.get();
+    }
+
+    private long next() {
+        return latest.accumulateAndGet(System.currentTimeMillis(), (previous, now) -> Math.max(previous + 1, now));
+    }
+}
@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntUnaryOperator;
+
+public class SearchIndex {
+    private static final int[] NO_FILMS = new int[0];
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final NavigableMap<String, Set<Integer>> titleTerms = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Set<Integer>> descriptionTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Integer, Document> documents = new ConcurrentHashMap<>();
+
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public synchronized void clear() {
+        titleTerms.clear();
+        descriptionTerms.clear();
+        documents.clear();
+    }
+
+    public synchronized void put(int film, String title, String description) {
+        Document document = new Document(tokenize(title), tokenize(description));
+        Document old = documents.put(film, document);
+        if (old != null) {
+            unindex(titleTerms, old.title, film);
+            unindex(descriptionTerms, old.description, film);
+        }
+        index(titleTerms, document.title, film);
+        index(descriptionTerms, document.description, film);
+    }
+
+    public int[] search(String query, boolean byTitle, boolean byDescription, int count,
+                        IntUnaryOperator popularity) {
+        Set<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || !byTitle && !byDescription) {
+            return NO_FILMS;
+        }
+        Map<Integer, Integer> scores = null;
+        for (String token : tokens) {
+            Map<Integer, Integer> tokenScores = new HashMap<>();
+            if (byTitle) {
+                match(titleTerms, token, TITLE_WEIGHT).forEach((film, score) -> tokenScores.merge(film, score,
+                        Integer::sum));
+            }
+            if (byDescription) {
+                match(descriptionTerms, token, DESCRIPTION_WEIGHT).forEach((film, score) -> tokenScores.merge(film,
+                        score, Integer::sum));
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((film, score) -> score + tokenScores.get(film));
+            }
+            if (scores.isEmpty()) {
+                return NO_FILMS;
+            }
+        }
+
+        Map<Integer, Integer> relevance = scores;
+        return relevance.keySet().stream()
+                .sorted(Comparator.comparing((Integer film) -> relevance.get(film)).reversed()
+                        .thenComparing(Comparator.comparingInt((Integer film) -> popularity.applyAsInt(film))
+                                .reversed())
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(count)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static Map<Integer, Integer> match(NavigableMap<String, Set<Integer>> terms, String token, int weight) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Set<Integer>> term
+                : terms.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            int score = term.getKey().length() == token.length() ? weight * 2 : weight;
+            for (Integer film : term.getValue()) {
+                scores.merge(film, score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static void index(NavigableMap<String, Set<Integer>> terms, Set<String> tokens, int film) {
+        for (String token : tokens) {
+            terms.computeIfAbsent(token, term -> ConcurrentHashMap.newKeySet()).add(film);
+        }
+    }
+
+    private static void unindex(NavigableMap<String, Set<Integer>> terms, Set<String> tokens, int film) {
+        for (String token : tokens) {
+            Set<Integer> films = terms.get(token);
+            if (films != null) {
+                films.remove(film);
+                if (films.isEmpty()) {
+                    terms.remove(token);
+                }
+            }
+        }
+    }
+
+    private static final class Document {
+        private final Set<String> title;
+        private final Set<String> description;
+
+        private Document(Set<String> title, Set<String> description) {
+            this.title = title;
+            this.description = description;
+        }
+    }
+}
@@ -1,38 +1,82 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import javax.annotation.PostConstruct;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component("userDb")
+@Timed(value = "filmorate.storage", histogram = true)
 public class UserDb implements UserStorage {
 
+    private static final int STREAM_PAGE_SIZE = 500;
+    private static final String INSERT_USER = "INSERT INTO \"USER\" (EMAIL, LOGIN, BIRTHDAY, NAME) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_USER = "UPDATE \"USER\" SET EMAIL = ?, LOGIN = ?, BIRTHDAY = ?, NAME = ? " +
+            "WHERE USER_ID = ?";
+    private static final String FIND_ALL = "SELECT * FROM \"USER\"";
+    private static final String FIND_PAGE = "SELECT * FROM \"USER\" WHERE USER_ID > ? ORDER BY USER_ID LIMIT ?";
+    private static final String FIND_BY_ID = "SELECT * FROM \"USER\" WHERE USER_ID = ?";
+    private static final String FIND_BY_IDS = "SELECT * FROM \"USER\" WHERE USER_ID = ANY(?)";
+    private static final String EXISTS = "SELECT 1 FROM \"USER\" WHERE USER_ID = ? LIMIT 1";
+    private static final String FIND_EXISTING_IDS = "SELECT USER_ID FROM \"USER\" WHERE USER_ID = ANY(?)";
+    private static final String FIND_FRIENDSHIPS = "SELECT USER_FIRST_ID, USER_SECOND_ID FROM FRIENDSHIP";
+    private static final String FIND_FRIENDS = "SELECT * FROM \"USER\" AS U WHERE U.USER_ID IN " +
+            "(SELECT F.USER_SECOND_ID FROM FRIENDSHIP AS F WHERE F.USER_FIRST_ID = ?);";
+    private static final String INSERT_FRIEND = "INSERT INTO FRIENDSHIP (USER_FIRST_ID, USER_SECOND_ID) VALUES (?, ?);";
+    private static final String MERGE_FRIEND = "MERGE INTO FRIENDSHIP (USER_FIRST_ID, USER_SECOND_ID) " +
+            "KEY (USER_FIRST_ID, USER_SECOND_ID) VALUES (?, ?);";
+    private static final String DELETE_FRIEND = "DELETE FROM FRIENDSHIP WHERE USER_FIRST_ID = ? AND USER_SECOND_ID = ?;";
+
     private final JdbcTemplate jdbcTemplate;
+    private final Counter userRows;
+    private final FriendGraph friendGraph = new FriendGraph();
 
-    public UserDb(JdbcTemplate jdbcTemplate) {
+    public UserDb(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
         this.jdbcTemplate = jdbcTemplate;
+        this.userRows = meterRegistry.counter("filmorate.sql.rows", "table", "USER");
+    }
+
+    @PostConstruct
+    public void loadFriendGraph() {
+        int[][] edges = {new int[1024], new int[1024]};
+        int[] size = new int[1];
+        jdbcTemplate.query(FIND_FRIENDSHIPS, rs -> {
+            if (size[0] == edges[0].length) {
+                edges[0] = Arrays.copyOf(edges[0], size[0] * 2);
+                edges[1] = Arrays.copyOf(edges[1], size[0] * 2);
+            }
+            edges[0][size[0]] = rs.getInt("USER_FIRST_ID");
+            edges[1][size[0]] = rs.getInt("USER_SECOND_ID");
+            size[0]++;
+        });
+        friendGraph.load(edges[0], edges[1], size[0]);
+        log.info("Загружен граф дружбы: {} связей", size[0]);
     }
 
     @Override
     public User create(User user) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
-
-        String sqlQuery = "INSERT INTO \"USER\" (EMAIL, LOGIN, BIRTHDAY, NAME) VALUES (?, ?, ?, ?)";
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sqlQuery, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, user.getEmail());
             ps.setString(2, user.getLogin());
             ps.setDate(3, java.sql.Date.valueOf(user.getBirthday()));
@@ -51,8 +95,7 @@ public class UserDb implements UserStorage {
 
     @Override
     public User update(User user) {
-        String sqlQuery = "UPDATE \"USER\" SET EMAIL = ?, LOGIN = ?, BIRTHDAY = ?, NAME = ? WHERE USER_ID = ?";
-        int rowsUpdated = jdbcTemplate.update(sqlQuery, user.getEmail(), user.getLogin(), user.getBirthday(), user.getName(),
+        int rowsUpdated = jdbcTemplate.update(UPDATE_USER, user.getEmail(), user.getLogin(), user.getBirthday(), user.getName(),
                 user.getId());
 
         if (rowsUpdated == 0) {
@@ -64,8 +107,7 @@ public class UserDb implements UserStorage {
     @Override
     public Map<Long, User> findAll() {
         Map<Long, User> users = new HashMap<>();
-        String sqlQuery = "SELECT * FROM \"USER\"";
-        List<User> usersFromDb = jdbcTemplate.query(sqlQuery, this::mapRowToUser);
+        List<User> usersFromDb = jdbcTemplate.query(FIND_ALL, this::mapRowToUser);
         for (User user : usersFromDb) {
             users.put(user.getId(), user);
         }
@@ -73,56 +115,129 @@ public class UserDb implements UserStorage {
     }
 
     @Override
-    public User getById(Long id) {
-        String sqlQuery = "SELECT * FROM \"USER\" WHERE USER_ID = ?";
-        SqlRowSet userRows = jdbcTemplate.queryForRowSet(sqlQuery, id);
-        if (userRows.next()) {
-            User user = User.builder()
-                    .email(userRows.getString("EMAIL"))
-                    .login(userRows.getString("LOGIN"))
-                    .name(userRows.getString("NAME"))
-                    .id(userRows.getLong("USER_ID"))
-                    .birthday((Objects.requireNonNull(userRows.getDate("BIRTHDAY"))).toLocalDate())
-                    .build();
+    public List<User> findPage(long afterId, int limit) {
+        return jdbcTemplate.query(FIND_PAGE, this::mapRowToUser, afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        long afterId = 0;
+        List<User> page;
+        do {
+            page = findPage(afterId, STREAM_PAGE_SIZE);
+            for (User user : page) {
+                consumer.accept(user);
+                afterId = user.getId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
 
+    @Override
+    public User getById(Long id) {
+        List<User> users = jdbcTemplate.query(FIND_BY_ID, this::mapRowToUser, id);
+        if (!users.isEmpty()) {
             log.info("Найден пользователь с id {}", id);
-            return user;
+            return users.get(0);
         }
 
         log.warn("Пользователь с id {} не найден", id);
         throw new UserNotFoundException("Пользователь не найден!");
     }
 
+    @Override
+    public boolean exists(Long id) {
+        return !jdbcTemplate.queryForList(EXISTS, Integer.class, id).isEmpty();
+    }
+
     @Override
     public void addFriend(long userId, long friendId) {
-        getById(userId);
-        User friend = getById(friendId);
-        String sqlQuery = "INSERT INTO FRIENDSHIP (USER_FIRST_ID, USER_SECOND_ID) VALUES (?, ?);";
-        jdbcTemplate.update(sqlQuery, userId, friendId);
+        try {
+            jdbcTemplate.update(INSERT_FRIEND, userId, friendId);
+            TransactionCallbacks.afterCommit(() -> friendGraph.add((int) userId, (int) friendId));
+        } catch (DuplicateKeyException e) {
+            log.info("Пользователь {} уже добавил в друзья пользователя {}", userId, friendId);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пользователь с id {} или {} не найден", userId, friendId);
+            throw new UserNotFoundException("Пользователь не найден!");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void addFriends(long userId, Collection<Long> friendIds) {
+        List<Long> friends = new ArrayList<>(new LinkedHashSet<>(friendIds));
+        if (friends.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new LinkedHashSet<>(friends);
+        missing.add(userId);
+        missing.removeAll(jdbcTemplate.queryForList(FIND_EXISTING_IDS, Long.class,
+                (Object) missing.toArray(Long[]::new)));
+        if (!missing.isEmpty()) {
+            log.warn("Пользователи с id {} не найдены", missing);
+            throw new UserNotFoundException("Пользователь не найден!");
+        }
+        jdbcTemplate.batchUpdate(MERGE_FRIEND, friends, friends.size(), (ps, friendId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, friendId);
+        });
+        log.info("Пользователь {} добавил в друзья {} пользователей", userId, friends.size());
+        TransactionCallbacks.afterCommit(() -> friends.forEach(friendId -> friendGraph.add((int) userId,
+                friendId.intValue())));
     }
 
     @Override
     public void removeFromFriends(long userId, long friendId) {
-        String sqlQuery = "DELETE FROM FRIENDSHIP WHERE USER_FIRST_ID = ? AND USER_SECOND_ID = ?;";
-        jdbcTemplate.update(sqlQuery, userId, friendId);
+        if (jdbcTemplate.update(DELETE_FRIEND, userId, friendId) > 0) {
+            TransactionCallbacks.afterCommit(() -> friendGraph.remove((int) userId, (int) friendId));
+        }
     }
 
     @Override
     public List<User> getMutualFriends(long userId, long otherUserId) {
-        String sqlQuery = "SELECT * FROM \"USER\" AS U WHERE U.USER_ID IN (SELECT F.USER_SECOND_ID " +
-                "FROM FRIENDSHIP AS F WHERE F.USER_FIRST_ID = ? " +
-                "INTERSECT SELECT F.USER_SECOND_ID FROM FRIENDSHIP AS F WHERE F.USER_FIRST_ID = ?);";
-        return jdbcTemplate.query(sqlQuery, this::mapRowToUser, userId, otherUserId);
+        return findByIds(friendGraph.mutualFriends((int) userId, (int) otherUserId));
+    }
+
+    @Override
+    public int getMutualFriendsCount(long userId, long otherUserId) {
+        return friendGraph.mutualFriendsCount((int) userId, (int) otherUserId);
     }
 
     @Override
     public List<User> getAllFriends(long userId) {
-        String sqlQuery = "SELECT * FROM \"USER\" AS U WHERE U.USER_ID IN " +
-                "(SELECT F.USER_SECOND_ID FROM FRIENDSHIP AS F WHERE F.USER_FIRST_ID = ?);";
-        return jdbcTemplate.query(sqlQuery, this::mapRowToUser, userId);
+        return jdbcTemplate.query(FIND_FRIENDS, this::mapRowToUser, userId);
+    }
+
+    @Override
+    public List<User> getRecommendations(long userId, int count) {
+        if (!exists(userId)) {
+            log.warn("Пользователь с id {} не найден", userId);
+            throw new UserNotFoundException("Пользователь не найден!");
+        }
+        return findByIds(friendGraph.recommend((int) userId, count));
+    }
+
+    private List<User> findByIds(int[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        Map<Long, User> users = new HashMap<>();
+        for (User user : jdbcTemplate.query(FIND_BY_IDS, this::mapRowToUser,
+                (Object) Arrays.stream(ids).boxed().toArray(Integer[]::new))) {
+            users.put(user.getId(), user);
+        }
+        List<User> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            User user = users.get((long) id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
     }
 
     private User mapRowToUser(ResultSet resultSet, int rowNum) throws SQLException {
+        userRows.increment();
         return User.builder()
                 .email(resultSet.getString("EMAIL"))
                 .login(resultSet.getString("LOGIN"))
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+public final class SqlStatementCounter {
+    private static final ThreadLocal<int[]> STATEMENTS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private SqlStatementCounter() {
+    }
+
+    static void increment() {
+        STATEMENTS.get()[0]++;
+    }
+
+    public static void reset() {
+        STATEMENTS.get()[0] = 0;
+    }
+
+    public static int get() {
+        return STATEMENTS.get()[0];
+    }
+}
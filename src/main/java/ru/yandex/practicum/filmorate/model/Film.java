@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 import lombok.Data;
 
@@ -26,7 +28,11 @@ public class Film {
     private int duration;
     @PositiveOrZero
     private int rate;
-    private final Set<Long> likes = new HashSet<>();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int likeCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Boolean likedByMe;
 
     private final Set<Genre> genres = new HashSet<>();
     @NotNull
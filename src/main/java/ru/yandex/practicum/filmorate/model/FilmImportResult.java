@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FilmImportResult {
+    private int total;
+    private int imported;
+    private final List<Long> ids = new ArrayList<>();
+    private final List<FilmImportError> errors = new ArrayList<>();
+}
@@ -1,7 +1,9 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Builder;
 import lombok.Data;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -25,7 +27,9 @@ public class User {
     @NotNull
     @PastOrPresent
     private LocalDate birthday;
+    @JsonDeserialize(as = LongHashSet.class)
     private Set<Long> friends;
+    @JsonDeserialize(as = LongHashSet.class)
     private Set<Long> likedFilms;
 
     public void addFriend(Long friendId) {
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exceptions.GenreNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.MpaNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportError;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@Timed(value = "filmorate.service", histogram = true)
+public class FilmImportService {
+    private final FilmStorage filmStorage;
+    private final FilmService filmService;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+
+    @Autowired
+    public FilmImportService(@Qualifier("cachingFilmStorage") FilmStorage filmStorage, FilmService filmService,
+                             GenreStorage genreStorage, MpaStorage mpaStorage, ObjectMapper objectMapper,
+                             Validator validator, @Value("${filmorate.import.batch-size:500}") int batchSize) {
+        this.filmStorage = filmStorage;
+        this.filmService = filmService;
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public FilmImportResult importFilms(InputStream body) throws IOException {
+        FilmImportResult result = new FilmImportResult();
+        List<Film> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+        long start = System.nanoTime();
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode node = objectMapper.readTree(parser);
+                try {
+                    Film film = objectMapper.treeToValue(node, Film.class);
+                    validate(film);
+                    batch.add(film);
+                    batchIndexes.add(index);
+                } catch (JsonProcessingException | ValidationException | GenreNotFoundException
+                         | MpaNotFoundException e) {
+                    result.getErrors().add(new FilmImportError(index, e.getMessage()));
+                }
+                index++;
+                if (batch.size() == batchSize) {
+                    persist(batch, batchIndexes, result);
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Ошибка разбора записи {} при импорте фильмов: {}", index, e.getOriginalMessage());
+            result.getErrors().add(new FilmImportError(index, "Некорректный JSON: " + e.getOriginalMessage()));
+        }
+        persist(batch, batchIndexes, result);
+
+        result.setTotal(index);
+        result.getErrors().sort(Comparator.comparingInt(FilmImportError::getIndex));
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Импортировано фильмов: {} из {} за {} мс ({} фильмов/с)", result.getImported(), index,
+                elapsedMillis, result.getImported() * 1000L / elapsedMillis);
+        return result;
+    }
+
+    private void validate(Film film) throws ValidationException {
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; ")));
+        }
+        filmService.validate(film);
+        mpaStorage.findMpaById(film.getMpa().getId());
+        for (Genre genre : film.getGenres()) {
+            genreStorage.findGenreById(genre.getId());
+        }
+    }
+
+    private void persist(List<Film> batch, List<Integer> batchIndexes, FilmImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            filmStorage.createAll(batch);
+            batch.forEach(film -> result.getIds().add(film.getId()));
+            result.setImported(result.getImported() + batch.size());
+        } catch (DataAccessException e) {
+            log.warn("Пакет из {} фильмов не сохранён, сохраняем по одному: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    result.getIds().add(filmStorage.create(batch.get(i)).getId());
+                    result.setImported(result.getImported() + 1);
+                } catch (DataAccessException ex) {
+                    result.getErrors().add(new FilmImportError(batchIndexes.get(i), ex.getMostSpecificCause()
+                            .getMessage()));
+                }
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -8,21 +9,27 @@ import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 public class FilmService {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final FilmStorage filmStorage;
 
     @Autowired
-    public FilmService(@Qualifier("filmDb") FilmStorage filmStorage) {
+    public FilmService(@Qualifier("cachingFilmStorage") FilmStorage filmStorage) {
         this.filmStorage = filmStorage;
     }
 
@@ -40,27 +47,130 @@ public class FilmService {
         return filmStorage.get(id);
     }
 
+    public long getVersion() {
+        return filmStorage.getVersion();
+    }
+
+    public long getVersion(Long id) {
+        return filmStorage.getVersion(id);
+    }
+
     public Collection<Film> findAll() {
         return filmStorage.getAll().values();
     }
 
+    public List<Film> findPage(long afterId, int limit) throws ValidationException {
+        validatePage(afterId, limit);
+        return filmStorage.getPage(afterId, limit);
+    }
+
+    public void streamAll(Consumer<Film> consumer) {
+        filmStorage.streamAll(consumer);
+    }
+
     public void like(Long id, Long userId) throws FilmNotFoundException, UserNotFoundException {
         filmStorage.addLike(id, userId);
     }
 
+    public void likeAll(List<Like> likes) throws FilmNotFoundException, UserNotFoundException, ValidationException {
+        if (likes == null || likes.size() > MAX_BATCH_SIZE) {
+            log.warn("Список лайков должен содержать не более {} элементов!", MAX_BATCH_SIZE);
+            throw new ValidationException("Список лайков должен содержать не более " + MAX_BATCH_SIZE + " элементов!");
+        }
+        for (Like like : likes) {
+            if (like == null || like.getFilmId() == null || like.getUserId() == null) {
+                log.warn("В лайке должны быть указаны filmId и userId!");
+                throw new ValidationException("В лайке должны быть указаны filmId и userId!");
+            }
+        }
+        filmStorage.addLikes(likes);
+    }
+
     public void unlike(Long id, Long userId) throws FilmNotFoundException, UserNotFoundException {
         filmStorage.deleteLike(id, userId);
     }
 
-    public List<Film> findMostPopular(int count) {
-        return filmStorage.getAll().values().stream()
-                .sorted((f1, f2) -> f2.getLikes().size() - f1.getLikes().size())
-                .limit(count)
-                .collect(Collectors.toList());
+    public List<Long> findLikes(Long id, long afterUserId, int limit) throws FilmNotFoundException, ValidationException {
+        validatePage(afterUserId, limit);
+        return filmStorage.getLikes(id, afterUserId, limit);
+    }
+
+    public Film markLikedBy(Film film, Long userId) {
+        if (userId != null) {
+            film.setLikedByMe(filmStorage.isLikedBy(film.getId(), userId));
+        }
+        return film;
+    }
+
+    public <C extends Collection<Film>> C markLikedBy(C films, Long userId) {
+        if (userId != null) {
+            films.forEach(film -> markLikedBy(film, userId));
+        }
+        return films;
+    }
+
+    public List<Film> findMostPopular(int count) throws ValidationException {
+        validateCount(count);
+        return filmStorage.getMostPopular(count);
+    }
+
+    public List<Film> findMostPopular(int count, Integer genreId, Integer year) throws ValidationException {
+        if (genreId == null && year == null) {
+            return findMostPopular(count);
+        }
+        validateCount(count);
+        return filmStorage.getMostPopular(count, genreId, year);
+    }
+
+    public List<Film> findRecommendations(Long userId, int count) throws UserNotFoundException, ValidationException {
+        validateCount(count);
+        return filmStorage.getRecommendations(userId, count);
+    }
+
+    public List<Film> search(String query, String by, int count) throws ValidationException {
+        validateCount(count);
+        if (query == null || query.isBlank()) {
+            log.warn("Поисковый запрос не может быть пустым!");
+            throw new ValidationException("Поисковый запрос не может быть пустым!");
+        }
+        boolean byTitle = false;
+        boolean byDescription = false;
+        for (String field : by.split(",")) {
+            switch (field.trim().toLowerCase(Locale.ROOT)) {
+                case "title":
+                    byTitle = true;
+                    break;
+                case "description":
+                    byDescription = true;
+                    break;
+                default:
+                    log.warn("Неизвестное поле поиска: {}", field);
+                    throw new ValidationException("Искать можно только по полям title и description!");
+            }
+        }
+        return filmStorage.search(query, byTitle, byDescription, count);
+    }
+
+    private void validateCount(int count) throws ValidationException {
+        if (count <= 0 || count > MAX_PAGE_SIZE) {
+            log.warn("Количество фильмов должно быть от 1 до {}!", MAX_PAGE_SIZE);
+            throw new ValidationException("Количество фильмов должно быть от 1 до " + MAX_PAGE_SIZE + "!");
+        }
+    }
+
+    private void validatePage(long afterId, int limit) throws ValidationException {
+        if (afterId < 0) {
+            log.warn("Параметр after не может быть отрицательным!");
+            throw new ValidationException("Параметр after не может быть отрицательным!");
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.warn("Параметр limit должен быть от 1 до {}!", MAX_PAGE_SIZE);
+            throw new ValidationException("Параметр limit должен быть от 1 до " + MAX_PAGE_SIZE + "!");
+        }
     }
 
-    private void validate(Film film) throws ValidationException {
-        if (film.getDescription().length() > 200) {
+    void validate(Film film) throws ValidationException {
+        if (film.getDescription() != null && film.getDescription().length() > 200) {
             log.warn("Превышено максимальное кол-во символов в описании!");
             throw new ValidationException("Превышено максимальное кол-во символов в описании!");
         }
@@ -26,4 +26,13 @@ public class GenreService {
     public Genre get(int id) throws GenreNotFoundException {
         return genreStorage.findGenreById(id);
     }
+
+    public long getVersion() {
+        return genreStorage.getVersion();
+    }
+
+    public long refresh() {
+        genreStorage.refresh();
+        return genreStorage.getVersion();
+    }
 }
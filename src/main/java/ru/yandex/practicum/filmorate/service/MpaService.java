@@ -25,4 +25,13 @@ public class MpaService {
     public Mpa getMpaById(int id) throws MpaNotFoundException {
         return mpaStorage.findMpaById(id);
     }
+
+    public long getVersion() {
+        return mpaStorage.getVersion();
+    }
+
+    public long refresh() {
+        mpaStorage.refresh();
+        return mpaStorage.getVersion();
+    }
 }
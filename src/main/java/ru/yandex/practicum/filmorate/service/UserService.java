@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -11,14 +12,19 @@ import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 public class UserService {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final UserStorage userStorage;
 
     @Autowired
-    public UserService(@Qualifier("userDb") UserStorage userStorage) {
+    public UserService(@Qualifier("cachingUserStorage") UserStorage userStorage) {
         this.userStorage = userStorage;
     }
 
@@ -37,6 +43,15 @@ public class UserService {
         return userStorage.findAll().values();
     }
 
+    public List<User> findPage(long afterId, int limit) throws ValidationException {
+        validatePage(afterId, limit);
+        return userStorage.findPage(afterId, limit);
+    }
+
+    public void streamAll(Consumer<User> consumer) {
+        userStorage.streamAll(consumer);
+    }
+
     public User find(Long id) throws UserNotFoundException {
         return userStorage.getById(id);
     }
@@ -45,6 +60,19 @@ public class UserService {
         userStorage.addFriend(id, friendId);
     }
 
+    public void addFriends(Long id, List<Long> friendIds) throws UserNotFoundException, ValidationException {
+        if (friendIds == null || friendIds.size() > MAX_BATCH_SIZE) {
+            log.warn("Список друзей должен содержать не более {} идентификаторов!", MAX_BATCH_SIZE);
+            throw new ValidationException("Список друзей должен содержать не более " + MAX_BATCH_SIZE +
+                    " идентификаторов!");
+        }
+        if (friendIds.stream().anyMatch(Objects::isNull)) {
+            log.warn("Список друзей не может содержать пустые идентификаторы!");
+            throw new ValidationException("Список друзей не может содержать пустые идентификаторы!");
+        }
+        userStorage.addFriends(id, friendIds);
+    }
+
     public void removeFriend(Long id, Long friendId) throws UserNotFoundException {
         userStorage.removeFromFriends(id, friendId);
     }
@@ -57,6 +85,29 @@ public class UserService {
         return userStorage.getMutualFriends(id, otherId);
     }
 
+    public int countCommonFriends(Long id, Long otherId) throws UserNotFoundException {
+        return userStorage.getMutualFriendsCount(id, otherId);
+    }
+
+    public List<User> findRecommendations(Long id, int count) throws UserNotFoundException, ValidationException {
+        if (count <= 0 || count > MAX_PAGE_SIZE) {
+            log.warn("Количество рекомендаций должно быть от 1 до {}!", MAX_PAGE_SIZE);
+            throw new ValidationException("Количество рекомендаций должно быть от 1 до " + MAX_PAGE_SIZE + "!");
+        }
+        return userStorage.getRecommendations(id, count);
+    }
+
+    private void validatePage(long afterId, int limit) throws ValidationException {
+        if (afterId < 0) {
+            log.warn("Параметр after не может быть отрицательным!");
+            throw new ValidationException("Параметр after не может быть отрицательным!");
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.warn("Параметр limit должен быть от 1 до {}!", MAX_PAGE_SIZE);
+            throw new ValidationException("Параметр limit должен быть от 1 до " + MAX_PAGE_SIZE + "!");
+        }
+    }
+
     private void validate(User user) throws ValidationException {
         if (user.getLogin().contains(" ")) {
             log.warn("Неверный формат login! Поле не должно содержать пробелы!");
@@ -2,19 +2,50 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 
 public interface FilmStorage {
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film update(Film film);
 
     Map<Long, Film> getAll();
 
+    List<Film> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<Film> consumer);
+
     Film get(Long id) throws FilmNotFoundException;
 
+    boolean exists(Long id);
+
+    List<Film> getMostPopular(int count);
+
+    List<Film> getMostPopular(int count, Integer genreId, Integer year);
+
     void addLike(Long filmId, Long userId);
 
+    void addLikes(Collection<Like> likes);
+
     void deleteLike(Long filmId, Long userId);
+
+    List<Long> getLikes(long filmId, long afterUserId, int limit);
+
+    boolean isLikedBy(long filmId, long userId);
+
+    List<Film> getRecommendations(long userId, int count);
+
+    List<Film> search(String query, boolean byTitle, boolean byDescription, int count);
+
+    long getVersion();
+
+    long getVersion(Long id);
 }
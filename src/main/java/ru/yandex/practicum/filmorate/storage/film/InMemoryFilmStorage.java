@@ -3,19 +3,41 @@ package ru.yandex.practicum.filmorate.storage.film;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.ResourceVersions;
+import ru.yandex.practicum.filmorate.dao.SearchIndex;
 import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Component("inMemoryFilmStorage")
 public class InMemoryFilmStorage implements FilmStorage {
 
+    private static final int RECOMMENDATION_NEIGHBOURS = 50;
+
     private final UserStorage userStorage;
-    private Map<Long, Film> films = new HashMap<>();
-    private Long counter = 1L;
+    private final ConcurrentMap<Long, Film> films = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongHashSet> likes = new ConcurrentHashMap<>();
+    private final AtomicLong counter = new AtomicLong(1);
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final ResourceVersions versions = new ResourceVersions();
 
     @Autowired
     public InMemoryFilmStorage(@Qualifier("inMemoryUserStorage") UserStorage userStorage) {
@@ -24,47 +46,245 @@ public class InMemoryFilmStorage implements FilmStorage {
 
     @Override
     public Film create(Film film) {
-        film.setId(counter);
-        films.put(film.getId(), film);
-        counter++;
-        return film;
+        film.setId(counter.getAndIncrement());
+        likes.put(film.getId(), new LongHashSet());
+        Film stored = snapshot(film);
+        films.put(stored.getId(), stored);
+        searchIndex.put(stored.getId().intValue(), stored.getName(), stored.getDescription());
+        versions.touch(stored.getId());
+        return snapshot(stored);
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        return films.stream()
+                .map(this::create)
+                .collect(Collectors.toList());
     }
 
     @Override
     public Film update(Film film) {
-        if (!films.containsKey(film.getId())) {
+        if (film.getId() == null) {
             throw new FilmNotFoundException("Фильм с таким id " + film.getId() + " не найден!");
         }
-        films.put(film.getId(), film);
-        return film;
+        Film stored = snapshot(film);
+        if (films.replace(stored.getId(), stored) == null) {
+            throw new FilmNotFoundException("Фильм с таким id " + film.getId() + " не найден!");
+        }
+        searchIndex.put(stored.getId().intValue(), stored.getName(), stored.getDescription());
+        versions.touch(stored.getId());
+        return snapshot(stored);
     }
 
     @Override
     public Map<Long, Film> getAll() {
-        return films;
+        Map<Long, Film> snapshot = new LinkedHashMap<>();
+        films.values().forEach(film -> snapshot.put(film.getId(), snapshot(film)));
+        return snapshot;
+    }
+
+    @Override
+    public List<Film> getPage(long afterId, int limit) {
+        return films.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparing(Film::getId))
+                .limit(limit)
+                .map(this::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        films.values().stream()
+                .map(this::snapshot)
+                .forEach(consumer);
     }
 
     @Override
     public Film get(Long id) throws FilmNotFoundException {
-        if (!films.containsKey(id)) {
+        Film film = films.get(id);
+        if (film == null) {
             throw new FilmNotFoundException("Фильм с id = " + id + " не найден!");
         }
-        return films.get(id);
+        return snapshot(film);
+    }
+
+    @Override
+    public List<Film> getMostPopular(int count) {
+        return films.values().stream()
+                .map(this::snapshot)
+                .sorted(Comparator.comparingInt(Film::getLikeCount).reversed()
+                        .thenComparing(Film::getId))
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Film> getMostPopular(int count, Integer genreId, Integer year) {
+        return getMostPopular(films.size()).stream()
+                .filter(film -> genreId == null || film.getGenres().stream().anyMatch(genre -> genre.getId() == genreId))
+                .filter(film -> year == null || film.getReleaseDate().getYear() == year)
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return films.containsKey(id);
     }
 
     @Override
     public void addLike(Long filmId, Long userId) {
-        Film film = get(filmId);
-        if (film != null && userStorage.getById(userId) != null) {
-            get(filmId).getLikes().add(userId);
+        LongHashSet filmLikes = likesOf(filmId, userId);
+        synchronized (filmLikes) {
+            filmLikes.add(userId.longValue());
         }
+        versions.touch(filmId);
+    }
+
+    @Override
+    public void addLikes(Collection<Like> likes) {
+        likes.forEach(like -> likesOf(like.getFilmId(), like.getUserId()));
+        likes.forEach(like -> addLike(like.getFilmId(), like.getUserId()));
     }
 
     @Override
     public void deleteLike(Long filmId, Long userId) {
-        Film film = get(filmId);
-        if (film != null && userStorage.getById(userId) != null) {
-            film.getLikes().remove(userId);
+        LongHashSet filmLikes = likesOf(filmId, userId);
+        synchronized (filmLikes) {
+            filmLikes.remove(userId.longValue());
+        }
+        versions.touch(filmId);
+    }
+
+    @Override
+    public List<Long> getLikes(long filmId, long afterUserId, int limit) {
+        LongHashSet filmLikes = likes.get(filmId);
+        if (filmLikes == null) {
+            throw new FilmNotFoundException("Фильм с id = " + filmId + " не найден!");
+        }
+        long[] users = copyOf(filmLikes).toLongArray();
+        Arrays.sort(users);
+        return Arrays.stream(users)
+                .filter(user -> user > afterUserId)
+                .limit(limit)
+                .boxed()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean isLikedBy(long filmId, long userId) {
+        LongHashSet filmLikes = likes.get(filmId);
+        if (filmLikes == null) {
+            return false;
         }
+        synchronized (filmLikes) {
+            return filmLikes.contains(userId);
+        }
+    }
+
+    @Override
+    public List<Film> search(String query, boolean byTitle, boolean byDescription, int count) {
+        return Arrays.stream(searchIndex.search(query, byTitle, byDescription, count, this::likesCount))
+                .mapToObj(id -> films.get((long) id))
+                .filter(Objects::nonNull)
+                .map(this::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long getVersion() {
+        return versions.latest();
+    }
+
+    @Override
+    public long getVersion(Long id) {
+        return films.containsKey(id) ? versions.get(id) : 0;
+    }
+
+    private int likesCount(int filmId) {
+        LongHashSet filmLikes = likes.get((long) filmId);
+        if (filmLikes == null) {
+            return 0;
+        }
+        synchronized (filmLikes) {
+            return filmLikes.size();
+        }
+    }
+
+    @Override
+    public List<Film> getRecommendations(long userId, int count) {
+        if (!userStorage.exists(userId)) {
+            throw new UserNotFoundException("Пользователь с id = " + userId + " не найден!");
+        }
+        Map<Long, LongHashSet> likedFilms = new HashMap<>();
+        for (Map.Entry<Long, LongHashSet> filmLikes : likes.entrySet()) {
+            for (long user : copyOf(filmLikes.getValue()).toLongArray()) {
+                likedFilms.computeIfAbsent(user, id -> new LongHashSet()).add(filmLikes.getKey().longValue());
+            }
+        }
+        LongHashSet userLikes = likedFilms.getOrDefault(userId, new LongHashSet());
+        if (userLikes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Integer> overlaps = new HashMap<>();
+        for (Map.Entry<Long, LongHashSet> other : likedFilms.entrySet()) {
+            if (other.getKey() == userId) {
+                continue;
+            }
+            int overlap = (int) other.getValue().stream().filter(userLikes::contains).count();
+            if (overlap > 0) {
+                overlaps.put(other.getKey(), overlap);
+            }
+        }
+        Map<Long, Integer> scores = new HashMap<>();
+        overlaps.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(RECOMMENDATION_NEIGHBOURS)
+                .forEach(neighbour -> likedFilms.get(neighbour.getKey()).stream()
+                        .filter(filmId -> !userLikes.contains(filmId))
+                        .forEach(filmId -> scores.merge(filmId, neighbour.getValue(), Integer::sum)));
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(count)
+                .map(score -> films.get(score.getKey()))
+                .filter(Objects::nonNull)
+                .map(this::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    private LongHashSet copyOf(LongHashSet filmLikes) {
+        synchronized (filmLikes) {
+            return new LongHashSet(filmLikes);
+        }
+    }
+
+    private LongHashSet likesOf(Long filmId, Long userId) {
+        LongHashSet filmLikes = likes.get(filmId);
+        if (filmLikes == null) {
+            throw new FilmNotFoundException("Фильм с id = " + filmId + " не найден!");
+        }
+        if (!userStorage.exists(userId)) {
+            throw new UserNotFoundException("Пользователь с id = " + userId + " не найден!");
+        }
+        return filmLikes;
+    }
+
+    private Film snapshot(Film film) {
+        Film copy = Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .rate(film.getRate())
+                .mpa(film.getMpa())
+                .build();
+        copy.getGenres().addAll(film.getGenres());
+        copy.setLikeCount(likesCount(film.getId().intValue()));
+        return copy;
     }
-}
\ No newline at end of file
+}
@@ -8,4 +8,8 @@ public interface GenreStorage {
     List<Genre> getAllGenres();
 
     Genre findGenreById(Integer id);
+
+    long getVersion();
+
+    void refresh();
 }
@@ -8,4 +8,8 @@ public interface MpaStorage {
     List<Mpa> getAllMpa();
 
     Mpa findMpaById(Integer id);
+
+    long getVersion();
+
+    void refresh();
 }
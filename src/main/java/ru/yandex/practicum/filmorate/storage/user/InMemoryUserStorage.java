@@ -4,34 +4,61 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component("inMemoryUserStorage")
 public class InMemoryUserStorage implements UserStorage {
-    private Map<Long, User> users = new HashMap<>();
-    private Long counter = 1L;
+    private final ConcurrentMap<Long, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongHashSet> friends = new ConcurrentHashMap<>();
+    private final AtomicLong counter = new AtomicLong(1);
 
     @Override
     public User create(User user) {
-        user.setId(counter);
-        users.put(user.getId(), user);
-        counter++;
-        return user;
+        user.setId(counter.getAndIncrement());
+        friends.put(user.getId(), new LongHashSet());
+        User stored = stored(user);
+        users.put(stored.getId(), stored);
+        return snapshot(stored);
     }
 
     @Override
     public User update(User user) {
-        if (!users.containsKey(user.getId())) {
+        if (user.getId() == null || users.replace(user.getId(), stored(user)) == null) {
             throw new UserNotFoundException("Пользователь с id " + user.getId() + " не найден!");
         }
-        users.put(user.getId(), user);
-        return user;
+        return snapshot(user);
     }
 
     @Override
     public Map<Long, User> findAll() {
-        return users;
+        Map<Long, User> snapshot = new LinkedHashMap<>();
+        users.values().forEach(user -> snapshot.put(user.getId(), snapshot(user)));
+        return snapshot;
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit)
+                .map(this::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        users.values().stream()
+                .map(this::snapshot)
+                .forEach(consumer);
     }
 
     @Override
@@ -41,53 +68,128 @@ public class InMemoryUserStorage implements UserStorage {
             log.warn("Пользователь с id = " + id + " не найден!");
             throw new UserNotFoundException("Пользователь с id = " + id + " не найден!");
         }
-        return user;
+        return snapshot(user);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return users.containsKey(id);
     }
 
     @Override
     public void addFriend(long userId, long friendId) {
-        User user = getById(userId);
-        User friend = getById(friendId);
-        if (user != null && friend != null) {
-            user.getFriends().add(friendId);
-            friend.getFriends().add(userId);
+        LongHashSet userFriends = friendsOf(userId);
+        LongHashSet friendFriends = friendsOf(friendId);
+        synchronized (userFriends) {
+            userFriends.add(friendId);
+        }
+        synchronized (friendFriends) {
+            friendFriends.add(userId);
         }
     }
 
+    @Override
+    public void addFriends(long userId, Collection<Long> friendIds) {
+        friendsOf(userId);
+        friendIds.forEach(this::friendsOf);
+        friendIds.forEach(friendId -> addFriend(userId, friendId));
+    }
+
     @Override
     public void removeFromFriends(long userId, long friendId) {
-        User user = getById(userId);
-        User friend = getById(friendId);
-        if (user != null && friend != null) {
-            user.getFriends().remove(friendId);
-            friend.getFriends().remove(userId);
+        LongHashSet userFriends = friendsOf(userId);
+        LongHashSet friendFriends = friendsOf(friendId);
+        synchronized (userFriends) {
+            userFriends.remove(friendId);
+        }
+        synchronized (friendFriends) {
+            friendFriends.remove(userId);
         }
     }
 
     @Override
     public List<User> getMutualFriends(long userId, long otherUserId) {
-        List<User> mutualFriends = new ArrayList<>();
-        User user = getById(userId);
-        User otherUser = getById(otherUserId);
-        if (user != null && otherUser != null) {
-            Set<Long> mutualFriendsIds = new HashSet<>(user.getFriends());
-            mutualFriendsIds.retainAll(otherUser.getFriends());
-            for (Long id : mutualFriendsIds) {
-                mutualFriends.add(getById(id));
-            }
-        }
-        return mutualFriends;
+        LongHashSet mutualFriendsIds = copyOf(friendsOf(userId));
+        mutualFriendsIds.retainAll(copyOf(friendsOf(otherUserId)));
+        return usersByIds(mutualFriendsIds);
+    }
+
+    @Override
+    public int getMutualFriendsCount(long userId, long otherUserId) {
+        LongHashSet mutualFriendsIds = copyOf(friendsOf(userId));
+        mutualFriendsIds.retainAll(copyOf(friendsOf(otherUserId)));
+        return mutualFriendsIds.size();
     }
 
     @Override
     public List<User> getAllFriends(long userId) {
-        List<User> friends = new ArrayList<>();
-        User user = getById(userId);
-        if (user != null) {
-            for (Long id : user.getFriends()) {
-                friends.add(getById(id));
+        return usersByIds(copyOf(friendsOf(userId)));
+    }
+
+    @Override
+    public List<User> getRecommendations(long userId, int count) {
+        LongHashSet userFriends = copyOf(friendsOf(userId));
+        Map<Long, Integer> mutualFriends = new HashMap<>();
+        for (long friendId : userFriends.toLongArray()) {
+            LongHashSet friendFriends = friends.get(friendId);
+            if (friendFriends == null) {
+                continue;
+            }
+            for (long candidateId : copyOf(friendFriends).toLongArray()) {
+                if (candidateId != userId && !userFriends.contains(candidateId)) {
+                    mutualFriends.merge(candidateId, 1, Integer::sum);
+                }
             }
         }
-        return friends;
+        return mutualFriends.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(count)
+                .map(entry -> users.get(entry.getKey()))
+                .filter(Objects::nonNull)
+                .map(this::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    private LongHashSet friendsOf(long userId) {
+        LongHashSet userFriends = friends.get(userId);
+        if (userFriends == null) {
+            log.warn("Пользователь с id = " + userId + " не найден!");
+            throw new UserNotFoundException("Пользователь с id = " + userId + " не найден!");
+        }
+        return userFriends;
+    }
+
+    private LongHashSet copyOf(LongHashSet ids) {
+        synchronized (ids) {
+            return new LongHashSet(ids);
+        }
+    }
+
+    private List<User> usersByIds(LongHashSet ids) {
+        List<User> result = new ArrayList<>();
+        for (long id : ids.toLongArray()) {
+            User user = users.get(id);
+            if (user != null) {
+                result.add(snapshot(user));
+            }
+        }
+        return result;
+    }
+
+    private User snapshot(User user) {
+        User copy = stored(user);
+        copy.setFriends(copyOf(friends.getOrDefault(user.getId(), new LongHashSet())));
+        return copy;
+    }
+
+    private static User stored(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,10 @@ package ru.yandex.practicum.filmorate.storage.user;
 import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     User create(User user);
@@ -13,13 +15,25 @@ public interface UserStorage {
 
     Map<Long, User> findAll();
 
+    List<User> findPage(long afterId, int limit);
+
+    void streamAll(Consumer<User> consumer);
+
     User getById(Long id) throws UserNotFoundException;
 
+    boolean exists(Long id);
+
     void addFriend(long userId, long friendId);
 
+    void addFriends(long userId, Collection<Long> friendIds);
+
     void removeFromFriends(long userId, long friendId);
 
     List<User> getMutualFriends(long userId, long otherUserId);
 
+    int getMutualFriendsCount(long userId, long otherUserId);
+
     List<User> getAllFriends(long userId);
+
+    List<User> getRecommendations(long userId, int count);
 }
@@ -0,0 +1,259 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+public class LongHashSet extends AbstractSet<Long> {
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private boolean containsEmpty;
+    private int size;
+    private int modCount;
+
+    public LongHashSet() {
+        keys = new long[MIN_CAPACITY];
+    }
+
+    public LongHashSet(int expectedSize) {
+        keys = new long[capacityFor(expectedSize)];
+    }
+
+    public LongHashSet(Collection<Long> values) {
+        this(values.size());
+        addAll(values);
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            modCount++;
+            return true;
+        }
+        int slot = slot(value);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = value;
+        size++;
+        modCount++;
+        if (storedKeys() * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        int slot = slot(value);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return false;
+    }
+
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            if (!containsEmpty) {
+                return false;
+            }
+            containsEmpty = false;
+            size--;
+            modCount++;
+            return true;
+        }
+        int slot = slot(value);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == value) {
+                shiftKeysBack(slot);
+                size--;
+                modCount++;
+                return true;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return false;
+    }
+
+    public long[] toLongArray() {
+        long[] values = new long[size];
+        int i = 0;
+        if (containsEmpty) {
+            values[i++] = EMPTY;
+        }
+        for (long key : keys) {
+            if (key != EMPTY) {
+                values[i++] = key;
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add(value.longValue());
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Long && contains(((Long) value).longValue());
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Long && remove(((Long) value).longValue());
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Long> values) {
+        if (values instanceof LongHashSet) {
+            boolean changed = false;
+            for (long value : ((LongHashSet) values).toLongArray()) {
+                changed |= add(value);
+            }
+            return changed;
+        }
+        return super.addAll(values);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> values) {
+        boolean changed = false;
+        for (Object value : values) {
+            changed |= remove(value);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> values) {
+        boolean changed = false;
+        for (long value : toLongArray()) {
+            if (!values.contains(value)) {
+                changed |= remove(value);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Long> filter) {
+        boolean changed = false;
+        for (long value : toLongArray()) {
+            if (filter.test(value)) {
+                changed |= remove(value);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        keys = new long[MIN_CAPACITY];
+        containsEmpty = false;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (long value : toLongArray()) {
+            hash += Long.hashCode(value);
+        }
+        return hash;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<>() {
+            private final long[] values = toLongArray();
+            private final int expectedModCount = modCount;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < values.length;
+            }
+
+            @Override
+            public Long next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return values[next++];
+            }
+        };
+    }
+
+    private int storedKeys() {
+        return containsEmpty ? size - 1 : size;
+    }
+
+    private int slot(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private void shiftKeysBack(int removed) {
+        int mask = keys.length - 1;
+        int gap = removed;
+        int slot = (gap + 1) & mask;
+        while (keys[slot] != EMPTY) {
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        keys = new long[capacity];
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -1,11 +1,3 @@
-DROP TABLE IF EXISTS PUBLIC."USER" CASCADE;
-DROP TABLE IF EXISTS PUBLIC.FRIENDSHIP CASCADE;
-DROP TABLE IF EXISTS PUBLIC.RATING CASCADE;
-DROP TABLE IF EXISTS PUBLIC.FILM CASCADE;
-DROP TABLE IF EXISTS PUBLIC.FILM_LIKE CASCADE;
-DROP TABLE IF EXISTS PUBLIC.GENRE CASCADE;
-DROP TABLE IF EXISTS PUBLIC.FILM_GENRE CASCADE;
-
 CREATE TABLE IF NOT EXISTS PUBLIC."USER" (
 	USER_ID INTEGER NOT NULL AUTO_INCREMENT,
 	EMAIL CHARACTER VARYING(50) NOT NULL,
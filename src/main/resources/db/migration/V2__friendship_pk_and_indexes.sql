@@ -0,0 +1,13 @@
+DELETE FROM PUBLIC.FRIENDSHIP WHERE _ROWID_ NOT IN (
+	SELECT MIN(_ROWID_) FROM PUBLIC.FRIENDSHIP GROUP BY USER_FIRST_ID, USER_SECOND_ID
+);
+
+ALTER TABLE PUBLIC.FRIENDSHIP ADD CONSTRAINT FRIENDSHIP_PK PRIMARY KEY (USER_FIRST_ID, USER_SECOND_ID);
+
+CREATE INDEX IF NOT EXISTS FRIENDSHIP_USER_SECOND_IDX ON PUBLIC.FRIENDSHIP (USER_SECOND_ID, USER_FIRST_ID);
+
+CREATE INDEX IF NOT EXISTS FILM_LIKE_USER_IDX ON PUBLIC.FILM_LIKE (USER_ID, FILM_ID);
+
+CREATE INDEX IF NOT EXISTS FILM_GENRE_GENRE_IDX ON PUBLIC.FILM_GENRE (GENRE_ID, FILM_ID);
+
+CREATE INDEX IF NOT EXISTS FILM_RATING_IDX ON PUBLIC.FILM (RATING_ID);
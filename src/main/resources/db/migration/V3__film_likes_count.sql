@@ -0,0 +1,7 @@
+ALTER TABLE PUBLIC.FILM ADD COLUMN IF NOT EXISTS LIKES_COUNT INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE PUBLIC.FILM AS F SET LIKES_COUNT = (
+	SELECT COUNT(*) FROM PUBLIC.FILM_LIKE AS FL WHERE FL.FILM_ID = F.FILM_ID
+);
+
+CREATE INDEX IF NOT EXISTS FILM_LIKES_COUNT_IDX ON PUBLIC.FILM (LIKES_COUNT DESC, FILM_ID);
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.controller.RequestExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "filmorate.async.enabled=true",
+        "filmorate.async.threads=1",
+        "filmorate.async.queue-capacity=1"
+})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class AsyncRequestTest {
+    private final MockMvc mockMvc;
+    private final RequestExecutor requestExecutor;
+
+    @Test
+    public void shouldReleaseRequestThreadWhileQueryWaitsForExecutor() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = occupyExecutor(release);
+        MvcResult popular;
+        MvcResult missing;
+        try {
+            popular = mockMvc.perform(get("/films/popular"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+        } finally {
+            release.countDown();
+        }
+        running.join();
+        mockMvc.perform(asyncDispatch(popular))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("[")));
+
+        CountDownLatch releaseAgain = new CountDownLatch(1);
+        running = occupyExecutor(releaseAgain);
+        try {
+            missing = mockMvc.perform(get("/users/-1"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+        } finally {
+            releaseAgain.countDown();
+        }
+        running.join();
+        mockMvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void shouldRejectRequestsWhenExecutorIsSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = occupyExecutor(release);
+        CompletableFuture<Void> queued = requestExecutor.run(() -> await(release));
+        try {
+            mockMvc.perform(get("/films"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(content().string(containsString("error")));
+        } finally {
+            release.countDown();
+        }
+        running.join();
+        queued.join();
+    }
+
+    private CompletableFuture<Void> occupyExecutor(CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> running = requestExecutor.run(() -> {
+            started.countDown();
+            await(release);
+        });
+        started.await();
+        return running;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementCounter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BatchMutationTest {
+    private static final long MISSING_ID = Integer.MAX_VALUE - 2L;
+
+    private final MockMvc mockMvc;
+    private final FilmService filmService;
+    private final UserService userService;
+
+    @Test
+    public void shouldAddFriendsInOneBatch() {
+        User user = createUser();
+        List<Long> friends = List.of(createUser().getId(), createUser().getId(), createUser().getId());
+
+        SqlStatementCounter.reset();
+        userService.addFriends(user.getId(), List.of(friends.get(0), friends.get(1), friends.get(2), friends.get(1)));
+
+        assertEquals(2, SqlStatementCounter.get());
+        assertEquals(friends, friendIds(user));
+
+        userService.addFriends(user.getId(), friends);
+        assertEquals(friends, friendIds(user));
+        assertEquals(3, userService.countCommonFriends(user.getId(), user.getId()));
+
+        Long friendId = friends.get(0);
+        assertThrows(UserNotFoundException.class,
+                () -> userService.addFriends(friendId, List.of(user.getId(), MISSING_ID)));
+        assertTrue(friendIds(userService.find(friendId)).isEmpty());
+        assertThrows(ValidationException.class,
+                () -> userService.addFriends(user.getId(), Collections.nCopies(1001, friendId)));
+    }
+
+    @Test
+    public void shouldAddLikesInOneBatch() {
+        User first = createUser();
+        User second = createUser();
+        Film film = createFilm();
+        Film other = createFilm();
+
+        SqlStatementCounter.reset();
+        filmService.likeAll(List.of(like(film, first), like(film, second), like(other, first), like(film, first)));
+
+        assertEquals(3, SqlStatementCounter.get());
+        assertEquals(2, filmService.find(film.getId()).getLikeCount());
+        assertEquals(1, filmService.find(other.getId()).getLikeCount());
+        assertEquals(List.of(first.getId(), second.getId()), filmService.findLikes(film.getId(), 0, 10));
+        assertTrue(filmService.markLikedBy(filmService.find(other.getId()), first.getId()).getLikedByMe());
+
+        filmService.likeAll(List.of(like(film, second), like(other, second)));
+        assertEquals(2, filmService.find(film.getId()).getLikeCount());
+        assertEquals(2, filmService.find(other.getId()).getLikeCount());
+
+        Like missingFilm = new Like();
+        missingFilm.setFilmId(MISSING_ID);
+        missingFilm.setUserId(first.getId());
+        Film untouched = createFilm();
+        assertThrows(FilmNotFoundException.class,
+                () -> filmService.likeAll(List.of(like(untouched, first), missingFilm)));
+        assertEquals(0, filmService.find(untouched.getId()).getLikeCount());
+        assertThrows(ValidationException.class, () -> filmService.likeAll(List.of(new Like())));
+    }
+
+    @Test
+    public void shouldAcceptBatchesOverHttp() throws Exception {
+        User user = createUser();
+        User friend = createUser();
+        Film film = createFilm();
+
+        mockMvc.perform(put("/users/{id}/friends", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + friend.getId() + "]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/films/likes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"filmId\": " + film.getId() + ", \"userId\": " + friend.getId() + "}]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/films/likes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"filmId\": " + MISSING_ID + ", \"userId\": " + friend.getId() + "}]"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(List.of(friend.getId()), friendIds(user));
+        assertEquals(1, filmService.find(film.getId()).getLikeCount());
+    }
+
+    private List<Long> friendIds(User user) {
+        return userService.findFriends(user.getId()).stream()
+                .map(User::getId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static Like like(Film film, User user) {
+        Like like = new Like();
+        like.setFilmId(film.getId());
+        like.setUserId(user.getId());
+        return like;
+    }
+
+    private Film createFilm() {
+        return filmService.create(Film.builder()
+                .name("Batch " + System.nanoTime())
+                .description("Batch likes")
+                .duration(90)
+                .releaseDate(LocalDate.of(2001, 1, 1))
+                .mpa(new Mpa(1, "G"))
+                .build());
+    }
+
+    private User createUser() {
+        return userService.create(User.builder()
+                .login("Batch" + System.nanoTime())
+                .name("Batch")
+                .email("batch@example.com")
+                .birthday(LocalDate.of(1990, 3, 3))
+                .build());
+    }
+}
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementCounter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EntityCacheTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    public void shouldServeRepeatedReadsFromCacheAndInvalidateOnWrites() {
+        User user = createUser("Cached");
+        Film film = filmService.create(Film.builder()
+                .name("The Navigator")
+                .description("Entity cache")
+                .duration(59)
+                .releaseDate(LocalDate.of(1924, 10, 13))
+                .mpa(new Mpa(1, "G"))
+                .build());
+        double hits = hits("films");
+
+        filmService.find(film.getId()).setName("Changed by caller");
+        SqlStatementCounter.reset();
+        Film cached = filmService.find(film.getId());
+
+        assertEquals(0, SqlStatementCounter.get());
+        assertEquals("The Navigator", cached.getName());
+        assertTrue(hits("films") > hits);
+
+        filmService.like(film.getId(), user.getId());
+        assertEquals(1, filmService.find(film.getId()).getLikeCount());
+        filmService.unlike(film.getId(), user.getId());
+        assertEquals(0, filmService.find(film.getId()).getLikeCount());
+
+        film.setName("The General");
+        filmService.update(film);
+        assertEquals("The General", filmService.find(film.getId()).getName());
+
+        userService.find(user.getId());
+        user.setName("Renamed");
+        userService.update(user);
+        SqlStatementCounter.reset();
+        assertEquals("Renamed", userService.find(user.getId()).getName());
+        assertEquals(1, SqlStatementCounter.get());
+    }
+
+    @Test
+    public void shouldCacheMissingIds() {
+        long missing = Integer.MAX_VALUE - 1L;
+        assertThrows(FilmNotFoundException.class, () -> filmService.find(missing));
+        assertThrows(UserNotFoundException.class, () -> userService.find(missing));
+
+        SqlStatementCounter.reset();
+        assertThrows(FilmNotFoundException.class, () -> filmService.find(missing));
+        assertThrows(UserNotFoundException.class, () -> userService.find(missing));
+        assertEquals(0, SqlStatementCounter.get());
+
+        SqlStatementCounter.reset();
+        assertThrows(UserNotFoundException.class, () -> filmService.like(1L, missing));
+        assertEquals(1, SqlStatementCounter.get());
+    }
+
+    @Test
+    public void shouldNotCacheUncommittedChanges() {
+        User user = createUser("Committed");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            user.setName("Rolled back");
+            userService.update(user);
+            assertEquals("Rolled back", userService.find(user.getId()).getName());
+            status.setRollbackOnly();
+        });
+
+        assertEquals("Committed", userService.find(user.getId()).getName());
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").functionCounter().count();
+    }
+
+    private User createUser(String name) {
+        return userService.create(User.builder()
+                .login("Cache" + System.nanoTime())
+                .name(name)
+                .email("cache@example.com")
+                .birthday(LocalDate.of(1990, 2, 2))
+                .build());
+    }
+}
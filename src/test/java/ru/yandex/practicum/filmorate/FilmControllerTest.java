@@ -8,8 +8,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportError;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
@@ -17,9 +20,13 @@ import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,6 +37,7 @@ import static org.junit.jupiter.api.Assertions.*;
 public class FilmControllerTest {
     private final FilmService filmService;
     private final UserService userService;
+    private final FilmImportService filmImportService;
     private static Validator validator;
 
     private static final String FILM_NAME = "The Matrix";
@@ -172,7 +180,7 @@ public class FilmControllerTest {
 
         filmService.like(film.getId(), user.getId());
 
-        assertEquals(1, filmService.find(film.getId()).getLikes().size());
+        assertEquals(1, filmService.find(film.getId()).getLikeCount());
     }
 
     @Test
@@ -197,7 +205,7 @@ public class FilmControllerTest {
         filmService.like(film.getId(), user.getId());
         filmService.unlike(film.getId(), user.getId());
 
-        assertEquals(0, film.getLikes().size());
+        assertEquals(0, filmService.find(film.getId()).getLikeCount());
     }
 
     @Test
@@ -232,5 +240,67 @@ public class FilmControllerTest {
 
         assertEquals(List.of(filmService.find(film.getId())), filmService.findMostPopular(1));
     }
-}
 
+    @Test
+    public void shouldUpdatePopularFilmsOnLikeAndUnlike() {
+        User user = User.builder()
+                .login("Smith")
+                .name("Agent Smith")
+                .email("smith@matrix.com")
+                .birthday(LocalDate.of(1962, 4, 4))
+                .build();
+        userService.create(user);
+
+        Film first = Film.builder()
+                .name("Alien")
+                .description("A sci-fi horror film directed by Ridley Scott")
+                .duration(117)
+                .releaseDate(LocalDate.of(1979, 5, 25))
+                .mpa(new Mpa(4, "R"))
+                .build();
+        filmService.create(first);
+
+        Film second = Film.builder()
+                .name("Aliens")
+                .description("A sci-fi action film directed by James Cameron")
+                .duration(137)
+                .releaseDate(LocalDate.of(1986, 7, 18))
+                .mpa(new Mpa(4, "R"))
+                .build();
+        filmService.create(second);
+
+        filmService.like(second.getId(), user.getId());
+        filmService.like(second.getId(), user.getId());
+
+        assertEquals(second.getId(), filmService.findMostPopular(1).get(0).getId());
+        assertEquals(1, filmService.findMostPopular(1).get(0).getLikeCount());
+
+        filmService.unlike(second.getId(), user.getId());
+        filmService.like(first.getId(), user.getId());
+
+        assertEquals(first.getId(), filmService.findMostPopular(1).get(0).getId());
+    }
+
+    @Test
+    public void shouldImportFilmsAndReportFailedRecords() throws IOException {
+        String body = "{\"name\":\"Solaris\",\"description\":\"Space\",\"releaseDate\":\"1972-03-20\"," +
+                "\"duration\":167,\"mpa\":{\"id\":2},\"genres\":[{\"id\":2}]}\n" +
+                "{\"name\":\"Too old\",\"description\":\"Old\",\"releaseDate\":\"1600-01-01\"," +
+                "\"duration\":10,\"mpa\":{\"id\":1}}\n" +
+                "{\"name\":\"Stalker\",\"description\":\"Zone\",\"releaseDate\":\"1979-05-25\"," +
+                "\"duration\":161,\"mpa\":{\"id\":2},\"genres\":[{\"id\":100}]}\n" +
+                "{\"name\":\"Mirror\",\"description\":\"Memory\",\"releaseDate\":\"1975-03-07\"," +
+                "\"duration\":108,\"mpa\":{\"id\":2}}\n";
+
+        FilmImportResult result = filmImportService.importFilms(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, result.getTotal());
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(1, 2), result.getErrors().stream()
+                .map(FilmImportError::getIndex)
+                .collect(Collectors.toList()));
+        assertEquals("Solaris", filmService.find(result.getIds().get(0)).getName());
+        assertEquals("Mirror", filmService.find(result.getIds().get(1)).getName());
+    }
+}
@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.GenreNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.MpaNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.metrics.SqlStatementCounter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.service.MpaService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Transactional
+public class FilmDbTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final GenreService genreService;
+    private final MpaService mpaService;
+
+    @BeforeEach
+    public void createFilms() {
+        User user = userService.create(User.builder()
+                .login("Counter")
+                .name("Statement Counter")
+                .email("counter@example.com")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        for (int i = 0; i < 5; i++) {
+            Film film = Film.builder()
+                    .name("Film " + i)
+                    .description("Description " + i)
+                    .duration(100 + i)
+                    .releaseDate(LocalDate.of(2000 + i, 1, 1))
+                    .mpa(new Mpa(1, "G"))
+                    .build();
+            film.getGenres().add(new Genre(1, "Комедия"));
+            film.getGenres().add(new Genre(2, "Драма"));
+            filmService.create(film);
+            filmService.like(film.getId(), user.getId());
+        }
+    }
+
+    @Test
+    public void shouldLoadAllFilmsWithFixedNumberOfStatements() {
+        SqlStatementCounter.reset();
+        int filmsCount = filmService.findAll().size();
+
+        assertEquals(2, SqlStatementCounter.get());
+
+        Film film = Film.builder()
+                .name("One more film")
+                .description("Description")
+                .duration(90)
+                .releaseDate(LocalDate.of(2010, 1, 1))
+                .mpa(new Mpa(1, "G"))
+                .build();
+        filmService.create(film);
+
+        SqlStatementCounter.reset();
+        assertEquals(filmsCount + 1, filmService.findAll().size());
+        assertEquals(2, SqlStatementCounter.get());
+    }
+
+    @Test
+    public void shouldLoadFilmWithFixedNumberOfStatements() {
+        Film film = filmService.findAll().iterator().next();
+
+        SqlStatementCounter.reset();
+        Film found = filmService.find(film.getId());
+
+        assertEquals(2, SqlStatementCounter.get());
+        assertEquals(film, found);
+    }
+
+    @Test
+    public void shouldServeGenresAndMpaWithoutStatements() {
+        SqlStatementCounter.reset();
+
+        assertEquals(6, genreService.getAllGenres().size());
+        assertEquals("Драма", genreService.get(2).getName());
+        assertEquals(5, mpaService.getAllMpa().size());
+        assertEquals("PG-13", mpaService.getMpaById(3).getName());
+        assertThrows(GenreNotFoundException.class, () -> genreService.get(100));
+        assertThrows(MpaNotFoundException.class, () -> mpaService.getMpaById(-1));
+
+        assertEquals(0, SqlStatementCounter.get());
+    }
+
+    @Test
+    public void shouldUpdateGenresInBatchWithoutReadBack() {
+        Film film = filmService.findAll().iterator().next();
+        Film filmUpdate = Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .duration(film.getDuration())
+                .releaseDate(film.getReleaseDate())
+                .mpa(film.getMpa())
+                .build();
+        filmUpdate.getGenres().add(new Genre(3, null));
+        filmUpdate.getGenres().add(new Genre(4, null));
+        filmUpdate.getGenres().add(new Genre(6, null));
+
+        SqlStatementCounter.reset();
+        Film updated = filmService.update(filmUpdate);
+
+        assertEquals(3, SqlStatementCounter.get());
+        assertEquals(Set.of(new Genre(3, "Мультфильм"), new Genre(4, "Триллер"), new Genre(6, "Боевик")),
+                updated.getGenres());
+        assertEquals(updated.getGenres(), filmService.find(film.getId()).getGenres());
+    }
+
+    @Test
+    public void shouldLikeWithoutLoadingFilmAndUser() {
+        User user = userService.create(User.builder()
+                .login("Liker")
+                .name("Liker")
+                .email("liker@example.com")
+                .birthday(LocalDate.of(1995, 5, 5))
+                .build());
+        Film film = filmService.findAll().iterator().next();
+        int likesBefore = film.getLikeCount();
+
+        SqlStatementCounter.reset();
+        filmService.like(film.getId(), user.getId());
+
+        assertEquals(2, SqlStatementCounter.get());
+        assertEquals(likesBefore + 1, filmService.find(film.getId()).getLikeCount());
+    }
+
+    @Test
+    public void shouldReportMissingLikeAndFriendTargets() {
+        User user = userService.findAll().iterator().next();
+        Film film = filmService.findAll().iterator().next();
+
+        assertThrows(UserNotFoundException.class, () -> filmService.like(film.getId(), -1L));
+        assertThrows(FilmNotFoundException.class, () -> filmService.like(-1L, user.getId()));
+        assertThrows(UserNotFoundException.class, () -> filmService.unlike(film.getId(), -1L));
+        assertThrows(FilmNotFoundException.class, () -> filmService.unlike(-1L, user.getId()));
+        assertThrows(UserNotFoundException.class, () -> userService.addFriend(user.getId(), -1L));
+    }
+}
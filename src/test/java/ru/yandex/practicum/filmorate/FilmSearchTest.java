@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmSearchTest {
+    private final FilmService filmService;
+    private final UserService userService;
+
+    @Test
+    public void shouldSearchFilmsByTitleAndDescription() {
+        Film brother = create("Брат", "Криминальная драма Балабанова о Петербурге");
+        Film brotherTwo = create("Брат 2", "Продолжение: Данила Багров едет в Америку");
+        Film cargo = create("Груз 200", "Драма Балабанова о позднесоветской провинции");
+        User user = userService.create(User.builder()
+                .login("Searcher")
+                .email("searcher@example.com")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+        filmService.like(cargo.getId(), user.getId());
+
+        try {
+            assertEquals(ids(brother, brotherTwo), ids(filmService.search("брат", "title", 10)));
+            assertEquals(ids(cargo, brother), ids(filmService.search("БАЛАБАНОВА", "title,description", 10)));
+            assertEquals(ids(cargo, brother), ids(filmService.search("драма балабан", "description", 10)));
+            assertEquals(ids(brotherTwo), ids(filmService.search("багров", "title,description", 10)));
+            assertTrue(filmService.search("балабанова", "title", 10).isEmpty());
+            assertThrows(ValidationException.class, () -> filmService.search(" ", "title", 10));
+            assertThrows(ValidationException.class, () -> filmService.search("брат", "director", 10));
+
+            brotherTwo.setName("Брат-2");
+            brotherTwo.setDescription("Данила Багров в Чикаго");
+            filmService.update(brotherTwo);
+
+            assertTrue(filmService.search("америку", "description", 10).isEmpty());
+            assertEquals(ids(brotherTwo), ids(filmService.search("чикаго", "description", 10)));
+            assertEquals("Брат-2", filmService.search("брат 2", "title", 10).get(0).getName());
+        } finally {
+            filmService.unlike(cargo.getId(), user.getId());
+        }
+    }
+
+    private Film create(String name, String description) {
+        return filmService.create(Film.builder()
+                .name(name)
+                .description(description)
+                .duration(100)
+                .releaseDate(LocalDate.of(1997, 12, 12))
+                .mpa(new Mpa(4, "R"))
+                .build());
+    }
+
+    private List<Long> ids(Film... films) {
+        return List.of(films).stream().map(Film::getId).collect(Collectors.toList());
+    }
+
+    private List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
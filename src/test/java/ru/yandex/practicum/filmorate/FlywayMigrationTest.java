@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FlywayMigrationTest {
+
+    @Test
+    public void shouldMigrateDatabaseCreatedByBaselineSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:baseline" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "password");
+        ResourceDatabasePopulator baseline = new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V1__init_schema.sql"),
+                new ClassPathResource("db/baseline/data.sql"));
+        baseline.setSqlScriptEncoding("UTF-8");
+        baseline.execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO \"USER\" (EMAIL, LOGIN, BIRTHDAY, NAME) " +
+                "VALUES ('old@example.com', 'old', '1990-01-01', 'Old')");
+        jdbcTemplate.update("INSERT INTO FILM (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATING_ID) " +
+                "VALUES ('Old film', 'Created before Flyway', '2000-01-01', 100, 1)");
+        jdbcTemplate.update("INSERT INTO FILM_LIKE (FILM_ID, USER_ID) VALUES (1, 1)");
+        jdbcTemplate.update("INSERT INTO FRIENDSHIP (USER_FIRST_ID, USER_SECOND_ID) VALUES (1, 1), (1, 1)");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertEquals(List.of(1), jdbcTemplate.queryForList(
+                "SELECT LIKES_COUNT FROM FILM WHERE FILM_ID = 1", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FRIENDSHIP", Integer.class));
+        assertThrows(RuntimeException.class, () -> jdbcTemplate.update(
+                "INSERT INTO FRIENDSHIP (USER_FIRST_ID, USER_SECOND_ID) VALUES (1, 1)"));
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM GENRE", Integer.class));
+        assertEquals("Комедия", jdbcTemplate.queryForObject(
+                "SELECT GENRE_NAME FROM GENRE WHERE GENRE_ID = 1", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE INDEX_NAME = 'FILM_LIKES_COUNT_IDX'", Integer.class));
+    }
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.dao.FriendGraph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FriendGraphTest {
+    private static final int USERS = 3_000;
+
+    @Test
+    public void shouldRankSecondDegreeContactsLikeBruteForce() {
+        Random random = new Random(13);
+        Map<Integer, Set<Integer>> friends = new HashMap<>();
+        List<int[]> edges = new ArrayList<>();
+        for (int user = 1; user <= USERS; user++) {
+            friends.put(user, new TreeSet<>());
+            for (int i = 0; i < 10; i++) {
+                int friend = 1 + random.nextInt(USERS);
+                if (friend != user && friends.get(user).add(friend)) {
+                    edges.add(new int[] {user, friend});
+                }
+            }
+        }
+        FriendGraph graph = new FriendGraph();
+        graph.load(edges.stream().mapToInt(edge -> edge[0]).toArray(),
+                edges.stream().mapToInt(edge -> edge[1]).toArray(), edges.size());
+
+        for (int i = 0; i < 5_000; i++) {
+            int user = 1 + random.nextInt(USERS + 10);
+            int friend = 1 + random.nextInt(USERS + 10);
+            Set<Integer> userFriends = friends.computeIfAbsent(user, id -> new TreeSet<>());
+            if (random.nextBoolean() && user != friend) {
+                userFriends.add(friend);
+                graph.add(user, friend);
+            } else {
+                userFriends.remove(friend);
+                graph.remove(user, friend);
+            }
+        }
+
+        for (int user = 1; user <= USERS + 10; user++) {
+            Set<Integer> userFriends = friends.getOrDefault(user, Set.of());
+            assertArrayEquals(userFriends.stream().mapToInt(Integer::intValue).toArray(), graph.friendsOf(user));
+            assertArrayEquals(bruteForce(friends, user, 5), graph.recommend(user, 5));
+        }
+        assertArrayEquals(bruteForce(friends, 1, Integer.MAX_VALUE), graph.recommend(1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldIntersectFriendListsOfAnySize() {
+        Random random = new Random(19);
+        int[] sizes = {0, 1, 5, 40, 700, 20_000};
+        List<int[]> edges = new ArrayList<>();
+        Map<Integer, Set<Integer>> friends = new HashMap<>();
+        for (int user = 1; user <= sizes.length * 2; user++) {
+            Set<Integer> userFriends = new TreeSet<>();
+            while (userFriends.size() < sizes[(user - 1) % sizes.length]) {
+                userFriends.add(100 + random.nextInt(60_000));
+            }
+            for (int friend : userFriends) {
+                edges.add(new int[] {user, friend});
+            }
+            friends.put(user, userFriends);
+        }
+        FriendGraph graph = new FriendGraph();
+        graph.load(edges.stream().mapToInt(edge -> edge[0]).toArray(),
+                edges.stream().mapToInt(edge -> edge[1]).toArray(), edges.size());
+
+        for (int user : friends.keySet()) {
+            for (int other : friends.keySet()) {
+                Set<Integer> expected = new TreeSet<>(friends.get(user));
+                expected.retainAll(friends.get(other));
+                int[] mutual = graph.mutualFriends(user, other);
+                assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), mutual);
+                assertEquals(expected.size(), graph.mutualFriendsCount(user, other));
+            }
+        }
+        assertEquals(0, graph.mutualFriendsCount(1, 1_000_000));
+
+        int shared = friends.get(6).iterator().next();
+        graph.add(1, shared);
+        assertArrayEquals(new int[] {shared}, graph.mutualFriends(1, 6));
+        assertEquals(1, graph.mutualFriendsCount(6, 1));
+    }
+
+    private int[] bruteForce(Map<Integer, Set<Integer>> friends, int user, int limit) {
+        Set<Integer> userFriends = friends.getOrDefault(user, Set.of());
+        Map<Integer, Integer> mutual = new HashMap<>();
+        for (int friend : userFriends) {
+            for (int candidate : friends.getOrDefault(friend, Set.of())) {
+                if (candidate != user && !userFriends.contains(candidate)) {
+                    mutual.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        return mutual.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+}
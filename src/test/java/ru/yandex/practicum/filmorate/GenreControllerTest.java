@@ -4,20 +4,30 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
 import java.util.Collection;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
+@AutoConfigureMockMvc
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class GenreControllerTest {
 
     private final GenreService genreService;
+    private final JdbcTemplate jdbcTemplate;
+    private final MockMvc mockMvc;
 
     @Test
     public void getAllGenres() {
@@ -32,4 +42,24 @@ public class GenreControllerTest {
 
         assertEquals("Комедия", genre.getName());
     }
+
+    @Test
+    public void shouldServeNewGenreAfterExplicitRefresh() throws Exception {
+        long version = genreService.getVersion();
+        jdbcTemplate.update("INSERT INTO GENRE (GENRE_ID, GENRE_NAME) VALUES (7, 'Вестерн')");
+        try {
+            assertEquals(6, genreService.getAllGenres().size());
+
+            mockMvc.perform(post("/actuator/referencedata"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.genres").value(genreService.getVersion()));
+
+            assertEquals("Вестерн", genreService.get(7).getName());
+            assertTrue(genreService.getVersion() > version);
+        } finally {
+            jdbcTemplate.update("DELETE FROM GENRE WHERE GENRE_ID = 7");
+            genreService.refresh();
+        }
+        assertEquals(6, genreService.getAllGenres().size());
+    }
 }
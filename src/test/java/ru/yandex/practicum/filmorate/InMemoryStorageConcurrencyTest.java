@@ -0,0 +1,219 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryStorageConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2_000;
+
+    private InMemoryUserStorage userStorage;
+    private InMemoryFilmStorage filmStorage;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void createStorages() {
+        userStorage = new InMemoryUserStorage();
+        filmStorage = new InMemoryFilmStorage(userStorage);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void stopExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldNotLoseIdsOnConcurrentCreate() throws Exception {
+        Set<Long> userIds = ConcurrentHashMap.newKeySet();
+        Set<Long> filmIds = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                userIds.add(userStorage.create(user(i)).getId());
+                filmIds.add(filmStorage.create(film(i)).getId());
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * OPERATIONS, userIds.size());
+        assertEquals(THREADS * OPERATIONS, filmIds.size());
+        assertEquals(userIds, userStorage.findAll().keySet());
+        assertEquals(filmIds, filmStorage.getAll().keySet());
+    }
+
+    @Test
+    public void shouldNotLoseLikesAndFriendsOnConcurrentUpdates() throws Exception {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < THREADS * OPERATIONS / 10; i++) {
+            userIds.add(userStorage.create(user(i)).getId());
+        }
+        Film film = filmStorage.create(film(0));
+        User star = userStorage.create(user(-1));
+        int perThread = userIds.size() / THREADS;
+        AtomicInteger threads = new AtomicInteger();
+
+        runConcurrently(() -> {
+            int thread = threads.getAndIncrement();
+            for (int i = 0; i < userIds.size(); i++) {
+                Long userId = userIds.get((i + thread * perThread) % userIds.size());
+                filmStorage.addLike(film.getId(), userId);
+                userStorage.addFriend(star.getId(), userId);
+                filmStorage.getMostPopular(1);
+            }
+            return null;
+        });
+
+        assertEquals(userIds.size(), filmStorage.get(film.getId()).getLikeCount());
+        assertEquals(userIds.size(), userStorage.getAllFriends(star.getId()).size());
+        for (Long userId : userIds) {
+            assertEquals(Set.of(star.getId()), userStorage.getById(userId).getFriends());
+        }
+
+        runConcurrently(() -> {
+            for (Long userId : userIds) {
+                filmStorage.deleteLike(film.getId(), userId);
+                userStorage.removeFromFriends(star.getId(), userId);
+            }
+            return null;
+        });
+
+        assertEquals(0, filmStorage.get(film.getId()).getLikeCount());
+        assertTrue(userStorage.getAllFriends(star.getId()).isEmpty());
+    }
+
+    @Test
+    public void shouldReturnSnapshotsDetachedFromStorage() {
+        User user = userStorage.create(user(0));
+        Film film = filmStorage.create(film(0));
+
+        Map<Long, Film> films = filmStorage.getAll();
+        films.clear();
+        filmStorage.get(film.getId()).setLikeCount(5);
+        userStorage.getById(user.getId()).getFriends().add(42L);
+
+        assertEquals(1, filmStorage.getAll().size());
+        assertEquals(0, filmStorage.get(film.getId()).getLikeCount());
+        assertTrue(filmStorage.getLikes(film.getId(), 0, 10).isEmpty());
+        assertTrue(userStorage.getById(user.getId()).getFriends().isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreLikesSuppliedOnCreate() {
+        Film request = film(0);
+        request.setLikeCount(42);
+        request.setLikedByMe(true);
+
+        Film created = filmStorage.create(request);
+        request.setName("Changed by client");
+        created.setName("Changed by caller");
+
+        assertEquals(0, created.getLikeCount());
+        assertEquals(0, filmStorage.get(created.getId()).getLikeCount());
+        assertTrue(filmStorage.getLikes(created.getId(), 0, 10).isEmpty());
+        assertEquals("Film 0", filmStorage.get(created.getId()).getName());
+    }
+
+    @Test
+    public void shouldNotShareUpdatedFilmWithCaller() {
+        User user = userStorage.create(user(0));
+        Film film = filmStorage.create(film(0));
+        filmStorage.addLike(film.getId(), user.getId());
+        Film request = film(1);
+        request.setId(film.getId());
+
+        Film updated = filmStorage.update(request);
+        request.setName("Changed by client");
+        updated.setName("Changed by caller");
+
+        assertEquals(1, updated.getLikeCount());
+        assertEquals(0, request.getLikeCount());
+        assertEquals("Film 1", filmStorage.get(film.getId()).getName());
+    }
+
+    @Test
+    public void shouldIgnoreFriendsSuppliedOnCreateAndNotShareUsers() {
+        User friend = userStorage.create(user(0));
+        User request = user(1);
+        request.setFriends(new LongHashSet(List.of(friend.getId(), 42L)));
+        request.setLikedFilms(new LongHashSet(List.of(7L)));
+
+        User created = userStorage.create(request);
+        request.setName("Changed by client");
+        created.setName("Changed by caller");
+        User update = user(2);
+        update.setId(created.getId());
+        User updated = userStorage.update(update);
+        update.setName("Changed again");
+        updated.getFriends().add(friend.getId());
+
+        User stored = userStorage.getById(created.getId());
+        assertTrue(created.getFriends().isEmpty());
+        assertTrue(stored.getFriends().isEmpty());
+        assertNull(stored.getLikedFilms());
+        assertTrue(userStorage.getAllFriends(friend.getId()).isEmpty());
+        assertEquals("User 2", stored.getName());
+    }
+
+    private <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private User user(int i) {
+        return User.builder()
+                .email("user" + i + "@example.com")
+                .login("user" + i)
+                .name("User " + i)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private Film film(int i) {
+        return Film.builder()
+                .name("Film " + i)
+                .description("Description " + i)
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(new Mpa(1, "G"))
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.controller.JsonConfig;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class JsonSerializationTest {
+
+    @Test
+    public void shouldWritePreSerializedReferenceDataLikeDefaultMapper() throws Exception {
+        ObjectMapper defaultMapper = new ObjectMapper().findAndRegisterModules();
+        ObjectMapper tunedMapper = new ObjectMapper().findAndRegisterModules()
+                .registerModules(new BlackbirdModule(), JsonConfig.referenceData());
+        Mpa mpa = new Mpa(4, "R");
+        List<Film> films = List.of(film(1, mpa, new Genre(1, "Комедия"), new Genre(2, "Драма")),
+                film(2, mpa, new Genre(2, "Драма")), film(3, new Mpa(1, null)));
+        Map<String, Object> reference = Map.of("genres", List.of(new Genre(6, "Боевик"), new Genre(6, "Боевик")),
+                "mpa", mpa);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(defaultMapper.writeValueAsString(films), tunedMapper.writeValueAsString(films));
+            assertEquals(defaultMapper.writeValueAsString(reference), tunedMapper.writeValueAsString(reference));
+            assertEquals(new String(defaultMapper.writeValueAsBytes(films), "UTF-8"),
+                    new String(tunedMapper.writeValueAsBytes(films), "UTF-8"));
+        }
+    }
+
+    @Test
+    public void shouldIgnoreLikesSentByClient() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        String json = objectMapper.writeValueAsString(film(1, new Mpa(1, "G")));
+        assertFalse(json.contains("likes"));
+
+        Film parsed = objectMapper.readValue(json.replace("\"likeCount\"", "\"likes\":[7,8],\"likeCount\""),
+                Film.class);
+
+        assertEquals(0, parsed.getLikeCount());
+    }
+
+    private static Film film(long id, Mpa mpa, Genre... genres) {
+        Film film = Film.builder()
+                .id(id)
+                .name("Film " + id)
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .build();
+        film.getGenres().addAll(List.of(genres));
+        return film;
+    }
+}
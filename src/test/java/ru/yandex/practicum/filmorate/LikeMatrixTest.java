@@ -0,0 +1,174 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.dao.LikeMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LikeMatrixTest {
+    private static final int USERS = 500;
+    private static final int FILMS = 300;
+    private static final int NEIGHBOURS = 50;
+
+    @Test
+    public void shouldRecommendFilmsLikeBruteForce() {
+        Random random = new Random(23);
+        Map<Integer, Set<Integer>> likes = new HashMap<>();
+        List<int[]> pairs = new ArrayList<>();
+        for (int user = 1; user <= USERS; user++) {
+            likes.put(user, new TreeSet<>());
+            for (int i = 0; i < 15; i++) {
+                int film = 1 + random.nextInt(FILMS);
+                if (likes.get(user).add(film)) {
+                    pairs.add(new int[] {film, user});
+                }
+            }
+        }
+        LikeMatrix matrix = new LikeMatrix();
+        matrix.load(pairs.stream().mapToInt(pair -> pair[0]).toArray(),
+                pairs.stream().mapToInt(pair -> pair[1]).toArray(), pairs.size());
+
+        for (int i = 0; i < 3_000; i++) {
+            int user = 1 + random.nextInt(USERS + 10);
+            int film = 1 + random.nextInt(FILMS + 10);
+            Set<Integer> userLikes = likes.computeIfAbsent(user, id -> new TreeSet<>());
+            if (random.nextBoolean()) {
+                userLikes.add(film);
+                matrix.add(film, user);
+            } else {
+                userLikes.remove(film);
+                matrix.remove(film, user);
+            }
+        }
+
+        for (int user = 1; user <= USERS + 10; user++) {
+            assertArrayEquals(likes.get(user) == null ? new int[0]
+                    : likes.get(user).stream().mapToInt(Integer::intValue).toArray(), matrix.filmsLikedBy(user));
+            assertArrayEquals(bruteForce(likes, user, 10), matrix.recommend(user, 10));
+        }
+        assertArrayEquals(bruteForce(likes, 1, Integer.MAX_VALUE), matrix.recommend(1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldRecommendLikeBruteForceWhenCountingInParallel() {
+        Random random = new Random(31);
+        Map<Integer, Set<Integer>> likes = new HashMap<>();
+        List<int[]> pairs = new ArrayList<>();
+        for (int user = 1; user <= 2_400; user++) {
+            likes.put(user, new TreeSet<>());
+            for (int film = 1; film <= 100; film++) {
+                if (user == 1 || random.nextInt(10) > 0) {
+                    likes.get(user).add(film);
+                    pairs.add(new int[] {film, user});
+                }
+            }
+            for (int i = 0; i < 5; i++) {
+                int film = 101 + random.nextInt(50);
+                if (likes.get(user).add(film)) {
+                    pairs.add(new int[] {film, user});
+                }
+            }
+        }
+        LikeMatrix matrix = new LikeMatrix(4);
+        matrix.load(pairs.stream().mapToInt(pair -> pair[0]).toArray(),
+                pairs.stream().mapToInt(pair -> pair[1]).toArray(), pairs.size());
+
+        assertArrayEquals(bruteForce(likes, 1, 10), matrix.recommend(1, 10));
+        assertArrayEquals(bruteForce(likes, 1, 10), matrix.recommend(1, 10));
+    }
+
+    @Test
+    public void shouldKeepBothSidesInSyncUnderConcurrentLikes() throws Exception {
+        LikeMatrix matrix = new LikeMatrix();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int seed = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        int film = 1 + random.nextInt(3);
+                        int user = 1 + random.nextInt(200);
+                        if (random.nextBoolean()) {
+                            matrix.add(film, user);
+                        } else {
+                            matrix.remove(film, user);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int film = 1; film <= 3; film++) {
+            int[] users = matrix.usersWhoLiked(film, 0, Integer.MAX_VALUE);
+            for (int user = 1; user <= 200; user++) {
+                assertEquals(Arrays.binarySearch(users, user) >= 0, matrix.contains(film, user));
+            }
+        }
+    }
+
+    @Test
+    public void shouldPageUsersWhoLikedFilm() {
+        LikeMatrix matrix = new LikeMatrix();
+        for (int user = 10; user >= 1; user--) {
+            matrix.add(7, user);
+        }
+        matrix.remove(7, 4);
+
+        assertArrayEquals(new int[] {1, 2, 3}, matrix.usersWhoLiked(7, 0, 3));
+        assertArrayEquals(new int[] {5, 6}, matrix.usersWhoLiked(7, 3, 2));
+        assertArrayEquals(new int[] {10}, matrix.usersWhoLiked(7, 9, 100));
+        assertArrayEquals(new int[0], matrix.usersWhoLiked(7, 10, 100));
+        assertArrayEquals(new int[0], matrix.usersWhoLiked(8, 0, 100));
+    }
+
+    private int[] bruteForce(Map<Integer, Set<Integer>> likes, int user, int limit) {
+        Set<Integer> userLikes = likes.getOrDefault(user, Set.of());
+        Map<Integer, Integer> overlaps = new HashMap<>();
+        for (Map.Entry<Integer, Set<Integer>> other : likes.entrySet()) {
+            if (other.getKey() == user) {
+                continue;
+            }
+            int overlap = (int) other.getValue().stream().filter(userLikes::contains).count();
+            if (overlap > 0) {
+                overlaps.put(other.getKey(), overlap);
+            }
+        }
+        Map<Integer, Integer> scores = new HashMap<>();
+        top(overlaps, NEIGHBOURS).forEach(neighbour -> likes.get(neighbour).stream()
+                .filter(film -> !userLikes.contains(film))
+                .forEach(film -> scores.merge(film, overlaps.get(neighbour), Integer::sum)));
+        return top(scores, limit).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private List<Integer> top(Map<Integer, Integer> counts, int limit) {
+        List<Integer> ids = new ArrayList<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(entry -> ids.add(entry.getKey()));
+        return ids;
+    }
+}
@@ -0,0 +1,232 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dao.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.queue-capacity=8",
+        "filmorate.likes.write-behind.flush-interval-ms=600000",
+        "filmorate.likes.write-behind.enqueue-timeout-ms=50"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class LikeWriteBehindTest {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final LikeWriteBehind likeWriteBehind;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    public void shouldUpdatePopularityImmediatelyAndPersistCoalescedLikesOnFlush() {
+        User first = createUser();
+        User second = createUser();
+        Film liked = createFilm();
+        Film unliked = createFilm();
+
+        filmService.like(liked.getId(), first.getId());
+        filmService.like(liked.getId(), second.getId());
+        filmService.like(unliked.getId(), first.getId());
+        filmService.unlike(unliked.getId(), first.getId());
+
+        assertEquals(liked.getId(), filmService.findMostPopular(1).get(0).getId());
+        assertEquals(0, likesInDb(liked));
+
+        likeWriteBehind.flush();
+
+        assertEquals(2, likesInDb(liked));
+        assertEquals(0, likesInDb(unliked));
+        assertEquals(2, likesCountColumn(liked));
+        assertEquals(0, likesCountColumn(unliked));
+        assertEquals(List.of(first.getId(), second.getId()), filmService.findLikes(liked.getId(), 0, 10));
+    }
+
+    @Test
+    public void shouldRejectLikeWithoutApplyingItWhenQueueStaysFull() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            users.add(createUser());
+        }
+        Film film = createFilm();
+        likeWriteBehind.flush();
+
+        for (User user : users.subList(0, 8)) {
+            filmService.like(film.getId(), user.getId());
+        }
+        User late = users.get(8);
+        assertThrows(RejectedExecutionException.class, () -> filmService.like(film.getId(), late.getId()));
+        assertEquals(8, filmService.find(film.getId()).getLikeCount());
+        assertFalse(filmService.markLikedBy(filmService.find(film.getId()), late.getId()).getLikedByMe());
+        assertEquals(0, likesInDb(film));
+
+        likeWriteBehind.flush();
+        filmService.like(film.getId(), late.getId());
+        likeWriteBehind.flush();
+
+        assertEquals(9, likesInDb(film));
+        assertEquals(9, likesCountColumn(film));
+    }
+
+    @Test
+    public void shouldWriteLikeStateFromMatrixRegardlessOfEventOrder() {
+        User user = createUser();
+        Film film = createFilm();
+        filmService.like(film.getId(), user.getId());
+        likeWriteBehind.flush();
+
+        filmService.unlike(film.getId(), user.getId());
+        likeWriteBehind.enqueue(film.getId(), user.getId(), true);
+        likeWriteBehind.flush();
+
+        assertEquals(0, likesInDb(film));
+        assertEquals(0, likesCountColumn(film));
+    }
+
+    @Test
+    public void shouldRejectMissingTargetsBeforeQueueing() {
+        User user = createUser();
+        Film film = createFilm();
+
+        assertThrows(UserNotFoundException.class, () -> filmService.like(film.getId(), -1L));
+        assertThrows(FilmNotFoundException.class, () -> filmService.like(-1L, user.getId()));
+        assertThrows(UserNotFoundException.class, () -> filmService.unlike(film.getId(), -1L));
+    }
+
+    @Test
+    public void shouldFlushQueuedLikesOnShutdown() throws InterruptedException {
+        User user = createUser();
+        Film film = createFilm();
+        LikeWriteBehind writer = new LikeWriteBehind(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(),
+                true, 100, 500, 600_000, 3, 1_000);
+        writer.start();
+
+        writer.enqueue(film.getId(), user.getId(), true);
+        assertEquals(0, likesInDb(film));
+
+        writer.stop();
+        assertEquals(1, likesInDb(film));
+        assertEquals(1, likesCountColumn(film));
+    }
+
+    @Test
+    public void shouldRetryFailedBatchBeforeNewerEvents() {
+        User user = createUser();
+        Film film = createFilm();
+        FailingJdbcTemplate failing = new FailingJdbcTemplate(jdbcTemplate, 1);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        LikeWriteBehind writer = new LikeWriteBehind(failing, transactionTemplate, registry, true, 100, 500,
+                600_000, 3, 1_000);
+
+        writer.enqueue(film.getId(), user.getId(), true);
+        writer.flush();
+        assertEquals(0, likesInDb(film));
+
+        writer.enqueue(film.getId(), user.getId(), false);
+        writer.enqueue(film.getId(), user.getId(), true);
+        writer.flush();
+
+        assertEquals(1, likesInDb(film));
+        assertEquals(1, likesCountColumn(film));
+        assertEquals(1, registry.counter("filmorate.likes.write_behind", "result", "retried").count());
+        assertEquals(0, registry.counter("filmorate.likes.write_behind", "result", "failed").count());
+    }
+
+    @Test
+    public void shouldDropBatchAfterRetriesAndKeepWriting() {
+        User user = createUser();
+        Film dropped = createFilm();
+        Film written = createFilm();
+        FailingJdbcTemplate failing = new FailingJdbcTemplate(jdbcTemplate, 3);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        LikeWriteBehind writer = new LikeWriteBehind(failing, transactionTemplate, registry, true, 100, 500,
+                600_000, 2, 1_000);
+
+        writer.enqueue(dropped.getId(), user.getId(), true);
+        writer.flush();
+        writer.flush();
+        writer.flush();
+        assertEquals(0, likesInDb(dropped));
+        assertEquals(1, registry.counter("filmorate.likes.write_behind", "result", "failed").count());
+
+        writer.enqueue(written.getId(), user.getId(), true);
+        writer.flush();
+        assertEquals(0, likesInDb(dropped));
+        assertEquals(1, likesInDb(written));
+    }
+
+    private int likesInDb(Film film) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FILM_LIKE WHERE FILM_ID = ?", Integer.class,
+                film.getId());
+    }
+
+    private int likesCountColumn(Film film) {
+        return jdbcTemplate.queryForObject("SELECT LIKES_COUNT FROM FILM WHERE FILM_ID = ?", Integer.class,
+                film.getId());
+    }
+
+    private User createUser() {
+        return userService.create(User.builder()
+                .login("Premiere" + System.nanoTime())
+                .email("premiere@example.com")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+    }
+
+    private Film createFilm() {
+        return filmService.create(Film.builder()
+                .name("Premiere night")
+                .description("Write-behind likes")
+                .duration(120)
+                .releaseDate(LocalDate.of(2023, 1, 1))
+                .mpa(new Mpa(1, "G"))
+                .build());
+    }
+
+    private static class FailingJdbcTemplate extends JdbcTemplate {
+        private int failures;
+
+        FailingJdbcTemplate(JdbcTemplate jdbcTemplate, int failures) {
+            super(jdbcTemplate.getDataSource());
+            this.failures = failures;
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            if (failures > 0) {
+                failures--;
+                throw new TransientDataAccessResourceException("База данных недоступна");
+            }
+            return super.batchUpdate(sql, batchArgs, batchSize, pss);
+        }
+    }
+}
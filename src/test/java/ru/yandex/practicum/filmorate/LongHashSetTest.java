@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void shouldBehaveLikeHashSet() {
+        Random random = new Random(42);
+        Set<Long> expected = new HashSet<>();
+        LongHashSet actual = new LongHashSet();
+
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), actual.remove(value));
+            } else {
+                assertEquals(expected.add(value), actual.add(value));
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+
+        for (long value = -200; value < 5_100; value++) {
+            assertEquals(expected.contains(value), actual.contains(value));
+        }
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected, new HashSet<>(actual));
+
+        actual.retainAll(Set.of(0L, 1L, 2L));
+        expected.retainAll(Set.of(0L, 1L, 2L));
+        assertEquals(expected, actual);
+        actual.clear();
+        assertTrue(actual.isEmpty());
+        assertFalse(actual.contains(0L));
+    }
+}
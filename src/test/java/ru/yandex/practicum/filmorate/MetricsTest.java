@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MetricsTest {
+    private final MockMvc mockMvc;
+
+    @Test
+    public void shouldExposeRequestStorageAndSqlMetrics() throws Exception {
+        mockMvc.perform(get("/films")).andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+        mockMvc.perform(get("/genres/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/genres/100")).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(matchesPattern("(?s).*filmorate_storage_seconds_count\\{[^}]*"
+                        + "class=\"ru.yandex.practicum.filmorate.dao.FilmDb\"[^}]*method=\"getAll\".*")))
+                .andExpect(content().string(matchesPattern("(?s).*filmorate_service_seconds_bucket\\{[^}]*"
+                        + "method=\"findMostPopular\".*")))
+                .andExpect(content().string(matchesPattern("(?s).*filmorate_sql_statements_count\\{[^}]*"
+                        + "uri=\"/films\".*")))
+                .andExpect(content().string(containsString("filmorate_sql_rows_total{")))
+                .andExpect(content().string(matchesPattern("(?s).*filmorate_cache_requests_total\\{[^}]*"
+                        + "cache=\"genres\"[^}]*result=\"not_found\".*")));
+    }
+}
@@ -0,0 +1,187 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.dao.FilmDb;
+import ru.yandex.practicum.filmorate.dao.UserDb;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class PagingAndStreamingTest {
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final FilmDb filmDb;
+    private final UserDb userDb;
+
+    @Test
+    public void shouldPageFilmsByIdInBothStorages() {
+        shouldPageFilmsById(filmDb);
+        shouldPageFilmsById(new InMemoryFilmStorage(new InMemoryUserStorage()));
+    }
+
+    @Test
+    public void shouldStreamEveryFilmOnceInBothStorages() {
+        shouldStreamEveryFilmOnce(filmDb);
+        shouldStreamEveryFilmOnce(new InMemoryFilmStorage(new InMemoryUserStorage()));
+    }
+
+    @Test
+    public void shouldPageAndStreamUsersInBothStorages() {
+        shouldPageAndStreamUsers(userDb);
+        shouldPageAndStreamUsers(new InMemoryUserStorage());
+    }
+
+    @Test
+    public void shouldStreamFilmsAndUsersOverHttp() throws Exception {
+        List<Long> filmIds = ids(filmDb.createAll(films(3)));
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            userIds.add(userDb.create(user()).getId());
+        }
+
+        List<Long> streamedFilms = streamedIds("/films?stream=true");
+        List<Long> streamedUsers = streamedIds("/users?stream=true");
+
+        assertTrue(streamedFilms.containsAll(filmIds));
+        assertEquals(filmDb.getAll().size(), streamedFilms.size());
+        assertTrue(streamedUsers.containsAll(userIds));
+        assertEquals(userDb.findAll().size(), streamedUsers.size());
+    }
+
+    @Test
+    public void shouldPageFilmsAndUsersOverHttp() throws Exception {
+        List<Long> filmIds = ids(filmDb.createAll(films(3)));
+        long userId = userDb.create(user()).getId();
+
+        mockMvc.perform(get("/films").param("after", String.valueOf(filmIds.get(0))).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(filmIds.get(1)))
+                .andExpect(jsonPath("$[1].id").value(filmIds.get(2)));
+        mockMvc.perform(get("/users").param("after", String.valueOf(userId - 1)).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(userId));
+    }
+
+    @Test
+    public void shouldRejectAfterTogetherWithStream() throws Exception {
+        mockMvc.perform(get("/films").param("stream", "true").param("after", "10"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users").param("stream", "true").param("after", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void shouldPageFilmsById(FilmStorage filmStorage) {
+        List<Long> ids = ids(filmStorage.createAll(films(5)));
+
+        assertEquals(ids.subList(0, 2), ids(filmStorage.getPage(ids.get(0) - 1, 2)));
+        assertEquals(ids.subList(2, 4), ids(filmStorage.getPage(ids.get(1), 2)));
+        assertEquals(ids.subList(4, 5), ids(filmStorage.getPage(ids.get(3), 2)));
+        assertTrue(filmStorage.getPage(ids.get(4), 2).isEmpty());
+    }
+
+    private void shouldStreamEveryFilmOnce(FilmStorage filmStorage) {
+        List<Long> ids = ids(filmStorage.createAll(films(STREAM_PAGE_SIZE + 1)));
+        List<Long> streamed = new ArrayList<>();
+
+        filmStorage.streamAll(film -> streamed.add(film.getId()));
+
+        assertTrue(streamed.containsAll(ids));
+        assertEquals(filmStorage.getAll().size(), streamed.size());
+        assertEquals(streamed.size(), streamed.stream().distinct().count());
+    }
+
+    private void shouldPageAndStreamUsers(UserStorage userStorage) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(userStorage.create(user()).getId());
+        }
+        List<Long> streamed = new ArrayList<>();
+
+        userStorage.streamAll(user -> streamed.add(user.getId()));
+
+        assertEquals(ids.subList(0, 2), userIds(userStorage.findPage(ids.get(0) - 1, 2)));
+        assertEquals(ids.subList(2, 3), userIds(userStorage.findPage(ids.get(1), 2)));
+        assertTrue(userStorage.findPage(ids.get(2), 2).isEmpty());
+        assertTrue(streamed.containsAll(ids));
+        assertEquals(userStorage.findAll().size(), streamed.size());
+    }
+
+    private List<Long> streamedIds(String uri) throws Exception {
+        MvcResult streaming = mockMvc.perform(get(uri))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(streaming))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(body)) {
+            ids.add(node.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static List<Film> films(int count) {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            films.add(Film.builder()
+                    .name("Paged film " + i)
+                    .description("Keyset paging")
+                    .duration(100)
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .mpa(new Mpa(1, "G"))
+                    .build());
+        }
+        return films;
+    }
+
+    private static User user() {
+        return User.builder()
+                .login("Pager" + System.nanoTime())
+                .email("pager@example.com")
+                .name("Pager")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> userIds(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exceptions.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class PopularFilmsTest {
+    private static final int YEAR = 1921;
+    private static final int COMEDY = 1;
+    private static final int DRAMA = 2;
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final List<long[]> likes = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void createUsers() {
+        for (int i = 0; i < 3; i++) {
+            users.add(userService.create(User.builder()
+                    .login("PopularFan" + System.nanoTime())
+                    .email("fan" + i + "@example.com")
+                    .birthday(LocalDate.of(1980, 1, 1))
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    public void removeLikes() {
+        likes.forEach(like -> filmService.unlike(like[0], like[1]));
+    }
+
+    @Test
+    public void shouldFilterPopularFilmsByGenreAndYear() {
+        Film kid = create("The Kid", YEAR, COMEDY);
+        Film golem = create("The Golem", YEAR, DRAMA);
+        Film sheik = create("The Sheik", YEAR, COMEDY, DRAMA);
+        Film nosferatu = create("Nosferatu", YEAR + 1, DRAMA);
+        like(golem, 2);
+        like(sheik, 1);
+        like(nosferatu, 3);
+
+        assertEquals(ids(golem, sheik, kid), ids(filmService.findMostPopular(10, null, YEAR)));
+        assertEquals(ids(sheik, kid), ids(filmService.findMostPopular(10, COMEDY, YEAR)));
+        assertEquals(ids(golem, sheik), ids(filmService.findMostPopular(10, DRAMA, YEAR)));
+        assertEquals(ids(golem), ids(filmService.findMostPopular(1, DRAMA, YEAR)));
+        assertEquals(ids(nosferatu), ids(filmService.findMostPopular(1, DRAMA, null)));
+        assertTrue(filmService.findMostPopular(10, 999, YEAR).isEmpty());
+        assertThrows(ValidationException.class, () -> filmService.findMostPopular(0, DRAMA, YEAR));
+        assertThrows(ValidationException.class, () -> filmService.findMostPopular(Integer.MAX_VALUE, DRAMA, null));
+        assertThrows(ValidationException.class, () -> filmService.findMostPopular(1001));
+
+        like(kid, 3);
+
+        assertEquals(ids(kid, sheik), ids(filmService.findMostPopular(10, COMEDY, YEAR)));
+        assertEquals(3, filmService.findMostPopular(1, COMEDY, YEAR).get(0).getLikeCount());
+    }
+
+    @Test
+    public void shouldMoveFilmBetweenBucketsWhenGenresOrYearChange() {
+        Film film = create("Metropolis", YEAR + 10, COMEDY);
+        Film other = create("Faust", YEAR + 10, DRAMA);
+        like(film, 1);
+
+        assertEquals(ids(film), ids(filmService.findMostPopular(10, COMEDY, YEAR + 10)));
+        assertEquals(ids(other), ids(filmService.findMostPopular(10, DRAMA, YEAR + 10)));
+
+        film.getGenres().clear();
+        film.getGenres().add(new Genre(DRAMA, null));
+        filmService.update(film);
+
+        assertTrue(filmService.findMostPopular(10, COMEDY, YEAR + 10).isEmpty());
+        assertEquals(ids(film, other), ids(filmService.findMostPopular(10, DRAMA, YEAR + 10)));
+
+        film.setReleaseDate(LocalDate.of(YEAR + 11, 1, 10));
+        filmService.update(film);
+
+        assertEquals(ids(other), ids(filmService.findMostPopular(10, DRAMA, YEAR + 10)));
+        assertEquals(ids(film), ids(filmService.findMostPopular(10, DRAMA, YEAR + 11)));
+        assertEquals(1, filmService.findMostPopular(10, DRAMA, YEAR + 11).get(0).getLikeCount());
+    }
+
+    @Test
+    public void shouldPageLikersAndMarkFilmsLikedByUser() {
+        Film liked = create("Safety Last!", YEAR + 20, COMEDY);
+        Film other = create("The General", YEAR + 20, COMEDY);
+        like(liked, 3);
+
+        assertEquals(List.of(users.get(0).getId(), users.get(1).getId()), filmService.findLikes(liked.getId(), 0, 2));
+        assertEquals(List.of(users.get(2).getId()), filmService.findLikes(liked.getId(), users.get(1).getId(), 2));
+        assertTrue(filmService.findLikes(other.getId(), 0, 2).isEmpty());
+        assertThrows(FilmNotFoundException.class, () -> filmService.findLikes(-1L, 0, 2));
+        assertThrows(ValidationException.class, () -> filmService.findLikes(liked.getId(), 0, 0));
+
+        List<Film> popular = filmService.markLikedBy(filmService.findMostPopular(2, COMEDY, YEAR + 20),
+                users.get(0).getId());
+        assertEquals(3, popular.get(0).getLikeCount());
+        assertEquals(true, popular.get(0).getLikedByMe());
+        assertEquals(false, popular.get(1).getLikedByMe());
+        assertNull(filmService.find(liked.getId()).getLikedByMe());
+    }
+
+    private Film create(String name, int year, int... genres) {
+        Film film = Film.builder()
+                .name(name)
+                .description("Silent film")
+                .duration(60)
+                .releaseDate(LocalDate.of(year, 6, 1))
+                .mpa(new Mpa(1, "G"))
+                .build();
+        for (int genre : genres) {
+            film.getGenres().add(new Genre(genre, null));
+        }
+        return filmService.create(film);
+    }
+
+    private void like(Film film, int count) {
+        for (int i = 0; i < count; i++) {
+            filmService.like(film.getId(), users.get(i).getId());
+            likes.add(new long[] {film.getId(), users.get(i).getId()});
+        }
+    }
+
+    private List<Long> ids(Film... films) {
+        return List.of(films).stream().map(Film::getId).collect(Collectors.toList());
+    }
+
+    private List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.dao.PopularityIndex;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PopularityIndexTest {
+    private static final int FILMS = 400;
+    private static final int GENRES = 6;
+    private static final int YEARS = 5;
+
+    @Test
+    public void shouldMatchFilteredSortOfAllFilms() {
+        Random random = new Random(31);
+        PopularityIndex index = new PopularityIndex();
+        Map<Integer, int[]> genres = new HashMap<>();
+        Map<Integer, Integer> years = new HashMap<>();
+        Map<Integer, Integer> likes = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int film = 1 + random.nextInt(FILMS);
+            int operation = random.nextInt(10);
+            if (operation == 0 || !years.containsKey(film)) {
+                genres.put(film, randomGenres(random));
+                years.put(film, 2000 + random.nextInt(YEARS));
+                index.update(film, years.get(film), genres.get(film));
+                likes.putIfAbsent(film, 0);
+            } else {
+                int delta = operation < 7 ? 1 : -1;
+                likes.put(film, Math.max(0, likes.get(film) + delta));
+                index.addLikes(film, delta);
+            }
+        }
+
+        for (Integer genre : new Integer[] {null, 1, 3, GENRES}) {
+            for (Integer year : new Integer[] {null, 2000, 2000 + YEARS - 1}) {
+                if (genre == null && year == null) {
+                    continue;
+                }
+                int[] expected = years.keySet().stream()
+                        .filter(film -> genre == null || Arrays.stream(genres.get(film)).anyMatch(id -> id == genre))
+                        .filter(film -> year == null || years.get(film).equals(year))
+                        .sorted(Comparator.comparing((Integer film) -> likes.get(film)).reversed()
+                                .thenComparing(film -> film))
+                        .limit(15)
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                assertArrayEquals(expected, index.top(15, genre, year));
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotPreallocateBeyondIndexedFilms() {
+        PopularityIndex index = new PopularityIndex();
+        index.put(1, 2000, 3, new int[] {1});
+        index.put(2, 2001, 5, new int[] {1, 2});
+
+        assertArrayEquals(new int[] {2, 1}, index.top(Integer.MAX_VALUE, 1, null));
+        assertArrayEquals(new int[] {2, 1}, index.top(Integer.MAX_VALUE, null, null));
+        assertArrayEquals(new int[0], new PopularityIndex().top(Integer.MAX_VALUE, null, null));
+    }
+
+    @Test
+    public void shouldReturnEveryFilmOnceWhileLikesChange() throws InterruptedException {
+        PopularityIndex index = new PopularityIndex();
+        for (int film = 1; film <= FILMS; film++) {
+            index.put(film, 2000, film % 7, new int[] {1});
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            Random random = new Random(37);
+            while (running.get()) {
+                index.addLikes(1 + random.nextInt(FILMS), random.nextInt(10) - 4);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                int[] top = index.top(FILMS, i % 2 == 0 ? null : 1, null);
+                assertEquals(FILMS, top.length);
+                assertEquals(FILMS, Arrays.stream(top).distinct().count());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    private int[] randomGenres(Random random) {
+        return IntStream.rangeClosed(1, GENRES)
+                .filter(genre -> random.nextInt(3) == 0)
+                .toArray();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.dao.SearchIndex;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SearchIndexTest {
+
+    @Test
+    public void shouldTokenizeCyrillicAndLatinText() {
+        assertEquals(Set.of("ежик", "в", "тумане", "1975"), SearchIndex.tokenize("Ёжик в ТУМАНЕ (1975)"));
+        assertEquals(Set.of("back", "to", "the", "future"), SearchIndex.tokenize("Back to the Future, back!"));
+        assertEquals(Set.of(), SearchIndex.tokenize(" -- "));
+    }
+
+    @Test
+    public void shouldRankByRelevanceThenPopularity() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Солярис", "Фантастическая драма Тарковского");
+        index.put(2, "Сталкер", "Фантастика по мотивам Стругацких");
+        index.put(3, "Зеркало", "Автобиографическая драма Тарковского");
+        index.put(4, "Зеркала", "Фильм ужасов");
+        Map<Integer, Integer> likes = Map.of(1, 5, 3, 10);
+
+        assertArrayEquals(new int[] {3, 1}, index.search("тарковского", true, true, 10, likes::get));
+        assertArrayEquals(new int[] {3, 1}, index.search("ДРАМА тарков", true, true, 10, likes::get));
+        assertArrayEquals(new int[] {1, 2}, index.search("фантаст", true, true, 10, this::noLikes));
+        assertArrayEquals(new int[] {3}, index.search("зеркало", true, true, 10, this::noLikes));
+        assertArrayEquals(new int[] {3, 4}, index.search("зеркал", true, true, 10, this::noLikes));
+        assertArrayEquals(new int[] {3}, index.search("зеркал драма", true, true, 10, this::noLikes));
+        assertArrayEquals(new int[] {}, index.search("тарковского", true, false, 10, this::noLikes));
+        assertArrayEquals(new int[] {2}, index.search("сталкер", true, true, 1, this::noLikes));
+        assertArrayEquals(new int[] {}, index.search("солярис сталкер", true, true, 10, this::noLikes));
+    }
+
+    @Test
+    public void shouldReplaceTermsOnUpdate() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Рабочее название", "Черновик");
+        index.put(1, "Андрей Рублёв", "Историческая драма");
+
+        assertArrayEquals(new int[] {}, index.search("черновик", true, true, 10, this::noLikes));
+        assertArrayEquals(new int[] {1}, index.search("рублев", true, true, 10, this::noLikes));
+        assertArrayEquals(new int[] {1}, index.search("Рублёв", true, false, 10, this::noLikes));
+    }
+
+    private int noLikes(int film) {
+        return 0;
+    }
+}
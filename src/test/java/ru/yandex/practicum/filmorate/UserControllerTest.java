@@ -5,8 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.exceptions.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 
 import javax.validation.ConstraintViolation;
@@ -16,6 +20,7 @@ import javax.validation.ValidatorFactory;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.*;
 public class UserControllerTest {
 
     private final UserService userService;
+    private final FilmService filmService;
     private static Validator validator;
 
     static {
@@ -225,5 +231,105 @@ public class UserControllerTest {
                 .birthday(LocalDate.of(2000, 8, 15))
                 .build();
     }
-}
 
+    @Test
+    public void shouldReturnUsersPageAfterId() {
+        User first = userService.create(User.builder()
+                .login("PageUser1")
+                .email("page1@example.com")
+                .birthday(LocalDate.of(2000, 8, 15))
+                .build());
+        User second = userService.create(User.builder()
+                .login("PageUser2")
+                .email("page2@example.com")
+                .birthday(LocalDate.of(2000, 8, 15))
+                .build());
+
+        List<User> page = userService.findPage(first.getId() - 1, 2);
+
+        assertEquals(List.of(first, second), page);
+        assertTrue(userService.findPage(second.getId(), 10).isEmpty());
+        assertThrows(ValidationException.class, () -> userService.findPage(0, 0));
+    }
+
+    @Test
+    public void shouldRecommendFriendsOfFriendsByMutualFriendsCount() {
+        User[] users = new User[6];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = userService.create(User.builder()
+                    .login("RecommendedUser" + i)
+                    .email("recommended" + i + "@example.com")
+                    .birthday(LocalDate.of(2000, 8, 15))
+                    .build());
+        }
+        userService.addFriend(users[0].getId(), users[1].getId());
+        userService.addFriend(users[0].getId(), users[2].getId());
+        userService.addFriend(users[1].getId(), users[2].getId());
+        userService.addFriend(users[1].getId(), users[3].getId());
+        userService.addFriend(users[2].getId(), users[3].getId());
+        userService.addFriend(users[2].getId(), users[4].getId());
+        userService.addFriend(users[1].getId(), users[0].getId());
+
+        assertEquals(List.of(users[3], users[4]), userService.findRecommendations(users[0].getId(), 10));
+        assertEquals(List.of(users[2]), userService.findCommonFriends(users[0].getId(), users[1].getId()));
+        assertEquals(1, userService.countCommonFriends(users[0].getId(), users[1].getId()));
+        assertEquals(0, userService.countCommonFriends(users[0].getId(), users[4].getId()));
+        assertEquals(List.of(users[3]), userService.findRecommendations(users[0].getId(), 1));
+
+        userService.removeFriend(users[2].getId(), users[3].getId());
+        userService.addFriend(users[1].getId(), users[4].getId());
+        userService.addFriend(users[0].getId(), users[5].getId());
+
+        assertEquals(List.of(users[4], users[3]), userService.findRecommendations(users[0].getId(), 10));
+        assertTrue(userService.findRecommendations(users[5].getId(), 10).isEmpty());
+        assertThrows(ValidationException.class, () -> userService.findRecommendations(users[0].getId(), 0));
+        assertThrows(ValidationException.class,
+                () -> userService.findRecommendations(users[0].getId(), Integer.MAX_VALUE));
+        assertThrows(UserNotFoundException.class, () -> userService.findRecommendations(-1L, 10));
+    }
+
+    @Test
+    public void shouldRecommendFilmsLikedByUsersWithSimilarTaste() {
+        User[] users = new User[4];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = userService.create(User.builder()
+                    .login("Cinephile" + i)
+                    .email("cinephile" + i + "@example.com")
+                    .birthday(LocalDate.of(1995, 3, 10))
+                    .build());
+        }
+        Film[] films = new Film[5];
+        for (int i = 0; i < films.length; i++) {
+            films[i] = filmService.create(Film.builder()
+                    .name("Recommended film " + i)
+                    .description("Film for recommendations")
+                    .duration(90)
+                    .releaseDate(LocalDate.of(2001, 1, 1))
+                    .mpa(new Mpa(1, "G"))
+                    .build());
+        }
+        int[][] likes = {{0, 0}, {0, 1}, {1, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 3}, {3, 4}};
+        for (int[] like : likes) {
+            filmService.like(films[like[1]].getId(), users[like[0]].getId());
+        }
+
+        try {
+            List<Film> recommendations = filmService.findRecommendations(users[0].getId(), 10);
+            assertEquals(List.of(films[2].getId(), films[3].getId()),
+                    recommendations.stream().map(Film::getId).collect(Collectors.toList()));
+            assertEquals(1, filmService.findRecommendations(users[0].getId(), 1).size());
+            assertTrue(filmService.findRecommendations(users[3].getId(), 10).isEmpty());
+            assertThrows(ValidationException.class, () -> filmService.findRecommendations(users[0].getId(), 0));
+            assertThrows(ValidationException.class,
+                    () -> filmService.findRecommendations(users[0].getId(), Integer.MAX_VALUE));
+            assertThrows(UserNotFoundException.class, () -> filmService.findRecommendations(-1L, 10));
+
+            filmService.unlike(films[2].getId(), users[1].getId());
+            assertEquals(films[3].getId(), filmService.findRecommendations(users[0].getId(), 10).get(0).getId());
+        } finally {
+            for (int[] like : likes) {
+                filmService.unlike(films[like[1]].getId(), users[like[0]].getId());
+            }
+        }
+    }
+}